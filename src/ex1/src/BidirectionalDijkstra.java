@@ -0,0 +1,133 @@
+package ex1.src;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional Dijkstra over a WGraph_CSR snapshot. Since the graph is undirected, a forward search from the source
+ * and a backward search from the target run on the same edges, each time advancing the side with the smaller queue.
+ * mu holds the length of the best path found so far through a vertex reached by both sides (meet).
+ * With non-negative weights the search can stop once the sum of the smallest keys in both queues is at least mu,
+ * since any path which is shorter would have to go through a vertex that is not yet settled by either side.
+ * Like DijkstraEngine, the labels of each side are valid only if stamped with the current search (epoch), and an instance
+ * is the workspace of one search at a time.
+ */
+
+public class BidirectionalDijkstra {
+    private final WGraph_CSR graph;
+    private final double[][] dist = new double[2][];
+    private final int[][] prev = new int[2][];
+    private final int[][] stamp = new int[2][];
+    private final long[][] settled = new long[2][];
+    private final IndexedMinHeap[] heap = new IndexedMinHeap[2];
+    private double mu;
+    private int meet, epoch, settledCount;
+
+    public BidirectionalDijkstra(WGraph_CSR graph) {
+        this.graph = graph;
+        int n = graph.nodeSize();
+        for (int side = 0; side < 2; side++) {
+            dist[side] = new double[n];
+            prev[side] = new int[n];
+            stamp[side] = new int[n];
+            settled[side] = new long[(n + 63) >>> 6];
+            heap[side] = new IndexedMinHeap(n);
+        }
+    }
+
+    /**
+     * Computes the shortest distance between the vertices in the given indices.
+     * @param src - the dense index of the source vertex
+     * @param target - the dense index of the target vertex
+     * @return the shortest distance, infinity if there's no path.
+     */
+    public double run(int src, int target) {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp[0], 0);
+            Arrays.fill(stamp[1], 0);
+            epoch = 0;
+        }
+        epoch++;
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(settled[side], 0);
+            heap[side].clear();
+        }
+        settledCount = 0;
+        mu = Double.POSITIVE_INFINITY;
+        meet = -1;
+        label(0, src, 0, -1);
+        label(1, target, 0, -1);
+        if (src == target) {
+            mu = 0;
+            meet = src;
+            return mu;
+        }
+
+        while (!heap[0].isEmpty() && !heap[1].isEmpty()) {
+            if (heap[0].minPriority() + heap[1].minPriority() >= mu) break;// no shorter path can be found
+            int side = heap[0].size() <= heap[1].size() ? 0 : 1;
+            step(side);
+        }
+        return mu;
+    }
+
+    /**
+     * Settles the closest vertex of one side and relaxes its edges.
+     * @param side - 0 for the forward search, 1 for the backward search
+     */
+    private void step(int side) {
+        double[] d = dist[side];
+        int[] s = stamp[side];
+        int u = heap[side].poll();
+        settled[side][u >>> 6] |= 1L << u;
+        settledCount++;
+        double du = d[u];
+        for (int pos = graph.rowStart(u), end = graph.rowEnd(u); pos < end; pos++) {
+            int v = graph.target(pos);
+            if ((settled[side][v >>> 6] & (1L << v)) != 0) continue;
+            double alt = du + graph.weight(pos);
+            if (s[v] != epoch || alt < d[v]) {
+                label(side, v, alt, u);
+                if (stamp[1 - side][v] == epoch && alt + dist[1 - side][v] < mu) {// v was reached by both sides
+                    mu = alt + dist[1 - side][v];
+                    meet = v;
+                }
+            }
+        }
+    }
+
+    private void label(int side, int v, double d, int p) {
+        stamp[side][v] = epoch;
+        dist[side][v] = d;
+        prev[side][v] = p;
+        heap[side].offer(v, d);
+    }
+
+    /**
+     * The path found in the last run, as dense indices from the source to the target.
+     * @return int[] of the indices on the path, null if there's no path.
+     */
+    public int[] path() {
+        if (meet < 0) return null;
+        int forward = 0;
+        for (int i = meet; i != -1; i = prev[0][i]) forward++;
+        int backward = 0;
+        for (int i = prev[1][meet]; i != -1; i = prev[1][i]) backward++;
+        int[] path = new int[forward + backward];
+        int pos = forward - 1;
+        for (int i = meet; i != -1; i = prev[0][i]) path[pos--] = i;
+        pos = forward;
+        for (int i = prev[1][meet]; i != -1; i = prev[1][i]) path[pos++] = i;
+        return path;
+    }
+
+    /**
+     * @return the number of vertices settled (by both sides together) in the last run.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,240 @@
+package ex1.src;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The hop distances (the number of edges, ignoring the weights) from a source vertex to all of the vertices of a
+ * WGraph_CSR snapshot, computed by a level synchronous BFS whose levels run in parallel on a fork-join pool.
+ * Every level is expanded in one of two directions (direction optimizing BFS):
+ * top down - the vertices of the frontier are split between the tasks, each one visiting the unvisited neighbors of its
+ *            vertices. When the level runs in more than one task, a vertex is claimed by setting its bit in the visited
+ *            bitmap with a compareAndSet, so it joins the next frontier exactly once.
+ * bottom up - the unvisited vertices are split between the tasks, each one looking for a neighbor in the frontier and
+ *             stopping at the first it finds. This reads far less edges once the frontier holds a large part of the graph.
+ * The search switches to bottom up when the edges of the frontier are more than 1/ALPHA of the edges of the unvisited
+ * vertices, and back to top down when the frontier is smaller than 1/BETA of the vertices.
+ * Each task collects its part of the next frontier and copies it to the shared array in one block. A level with a
+ * small frontier (common in graphs with a large diameter) runs as a single task in the calling thread, without the
+ * compareAndSet.
+ * WGraph_Algo.hops(src) runs it for its graph.
+ */
+
+public class BreadthFirstSearch {
+    private static final int GRAIN = 1 << 12;// the number of vertices below which a task runs without splitting
+    private static final int ALPHA = 14, BETA = 24;
+
+    private final WGraph_CSR graph;
+    private final int[] dist;
+    private int reached, depth, bottomUpSteps;
+
+    /**
+     * Runs the BFS on the common fork-join pool.
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     */
+    public BreadthFirstSearch(WGraph_CSR graph, int source) {
+        this(graph, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     * @param pool - the pool to run the levels on
+     */
+    public BreadthFirstSearch(WGraph_CSR graph, int source, ForkJoinPool pool) {
+        int n = graph.nodeSize();
+        this.graph = graph;
+        this.dist = new int[n];
+        Arrays.fill(dist, -1);
+        int src = graph.indexOf(source);
+        if (src < 0) return;
+
+        Level level = new Level(graph, dist, new AtomicLongArray((n + 63) >>> 6));
+        level.frontier[0] = src;
+        level.size = 1;
+        dist[src] = 0;
+        reached = 1;
+        long frontierEdges = graph.rowEnd(src) - graph.rowStart(src);
+        long unvisitedEdges = (n == 0 ? 0 : graph.rowEnd(n - 1)) - frontierEdges;
+        boolean bottomUp = false;
+        while (level.size > 0) {
+            if (!bottomUp && frontierEdges * ALPHA > unvisitedEdges) bottomUp = true;
+            else if (bottomUp && (long) level.size * BETA < n) bottomUp = false;
+            level.next(pool, bottomUp);
+            if (bottomUp) bottomUpSteps++;
+            if (level.size > 0) depth++;
+            reached += level.size;
+            frontierEdges = level.edges.get();
+            unvisitedEdges -= frontierEdges;
+        }
+    }
+
+    /**
+     * The state of the search between its levels, expanded to the next level by Step tasks.
+     */
+    private static class Level {
+        private final WGraph_CSR graph;
+        private final int[] dist;
+        private final AtomicLongArray visited;
+        private int[] frontier, next;
+        private int size, depth;
+        private final AtomicInteger nextSize = new AtomicInteger();
+        private final AtomicLong edges = new AtomicLong();// the number of half edges of the next frontier
+
+        Level(WGraph_CSR graph, int[] dist, AtomicLongArray visited) {
+            this.graph = graph;
+            this.dist = dist;
+            this.visited = visited;
+            this.frontier = new int[graph.nodeSize()];
+            this.next = new int[graph.nodeSize()];
+        }
+
+        void next(ForkJoinPool pool, boolean bottomUp) {
+            nextSize.set(0);
+            edges.set(0);
+            int range = bottomUp ? graph.nodeSize() : size;
+            Step step = new Step(this, bottomUp, 0, range, range > GRAIN);
+            if (step.concurrent) pool.invoke(step);
+            else step.compute();// a small level runs in this thread, saving the handoff to the pool
+            int[] t = frontier;
+            frontier = next;
+            next = t;
+            size = nextSize.get();
+            depth++;
+        }
+
+        /**
+         * Sets the bit of the vertex in the visited bitmap.
+         * @return true iff this call set it (no other thread visited the vertex before).
+         */
+        boolean claim(int v) {
+            int word = v >>> 6;
+            long bit = 1L << v;
+            while (true) {
+                long bits = visited.get(word);
+                if ((bits & bit) != 0) return false;
+                if (visited.compareAndSet(word, bits, bits | bit)) return true;
+            }
+        }
+
+        /**
+         * Adds the vertices found by a task to the next frontier.
+         */
+        void publish(int[] found, int count, long degrees) {
+            if (count == 0) return;
+            int at = nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, next, at, count);
+            edges.addAndGet(degrees);
+        }
+    }
+
+    /**
+     * Expands a range of the frontier (top down) or of the vertices (bottom up), split in halves above GRAIN.
+     */
+    private static class Step extends RecursiveAction {
+        private final Level level;
+        private final boolean bottomUp;
+        private final int from, to;
+        private final boolean concurrent;// false if this is the only task of the level
+
+        Step(Level level, boolean bottomUp, int from, int to, boolean concurrent) {
+            this.level = level;
+            this.bottomUp = bottomUp;
+            this.from = from;
+            this.to = to;
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Step(level, bottomUp, from, mid, true), new Step(level, bottomUp, mid, to, true));
+                return;
+            }
+            WGraph_CSR g = level.graph;
+            int[] dist = level.dist;
+            int d = level.depth;
+            int[] found = new int[bottomUp ? to - from : 64];
+            int count = 0;
+            long degrees = 0;
+            if (bottomUp) {
+                for (int v = from; v < to; v++) {
+                    if (dist[v] >= 0) continue;
+                    int end = g.rowEnd(v);
+                    for (int pos = g.rowStart(v); pos < end; pos++) {
+                        if (dist[g.target(pos)] == d) {// a neighbor in the frontier
+                            dist[v] = d + 1;
+                            found[count++] = v;
+                            degrees += end - g.rowStart(v);
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    int u = level.frontier[i];
+                    int end = g.rowEnd(u);
+                    for (int pos = g.rowStart(u); pos < end; pos++) {
+                        int v = g.target(pos);
+                        if (dist[v] >= 0 || (concurrent && !level.claim(v))) continue;
+                        dist[v] = d + 1;
+                        if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                        found[count++] = v;
+                        degrees += g.rowEnd(v) - g.rowStart(v);
+                    }
+                }
+            }
+            level.publish(found, count, degrees);
+        }
+    }
+
+    /**
+     * @return the snapshot this search ran on.
+     */
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of edges on a shortest (by hops) path from the source to the vertex, -1 if it's not in the
+     * graph or can't be reached.
+     */
+    public int hops(int key) {
+        int i = graph.indexOf(key);
+        return i < 0 ? -1 : dist[i];
+    }
+
+    /**
+     * @return the hop distance of each vertex by its dense index (see WGraph_CSR.keyAt), -1 for unreachable vertices.
+     */
+    public int[] distances() {
+        return dist.clone();
+    }
+
+    /**
+     * @return the number of vertices reached (including the source).
+     */
+    public int reachedCount() {
+        return reached;
+    }
+
+    /**
+     * @return the largest hop distance of a reached vertex.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return the number of levels that were expanded bottom up.
+     */
+    public int bottomUpSteps() {
+        return bottomUpSteps;
+    }
+}
@@ -0,0 +1,162 @@
+package ex1.src;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The connected components of a WGraph_CSR snapshot, computed in parallel on a fork-join pool.
+ * The components are found with a concurrent (lock free) union-find over the dense indices of the vertices:
+ * every set is linked to the set with the smaller root with a compareAndSet, and find halves the paths with
+ * compareAndSet as well. A parent is always smaller than its child and only gets smaller, so no thread ever sees a
+ * cycle and the root of every set is its smallest vertex.
+ * The vertices are split into ranges holding about the same number of edges (by the offsets of their rows), each
+ * range is a fork-join task uniting the endpoints of the edges from its vertices to the smaller ones (every edge once).
+ * The components are then numbered 0..count()-1 by their smallest vertex (so by their smallest key).
+ * WGraph_Algo.components() computes them for its graph, and isConnected uses them on large graphs.
+ */
+
+public class Components {
+    private static final int GRAIN = 1 << 14;// the number of half edges below which a task runs without splitting
+
+    private final WGraph_CSR graph;
+    private final int[] ids;
+    private final int[] sizes;
+
+    /**
+     * Computes the components on the common fork-join pool.
+     * @param graph - the snapshot of the graph
+     */
+    public Components(WGraph_CSR graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - the snapshot of the graph
+     * @param pool - the pool to run the tasks on
+     */
+    public Components(WGraph_CSR graph, ForkJoinPool pool) {
+        int n = graph.nodeSize();
+        this.graph = graph;
+        this.ids = new int[n];
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) parent.set(i, i);
+        if (n > 0) pool.invoke(new Unite(graph, parent, 0, n));
+
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);// the root is not bigger than v, so it's numbered already
+            ids[v] = root == v ? count++ : ids[root];
+        }
+        this.sizes = new int[count];
+        for (int v = 0; v < n; v++) sizes[ids[v]]++;
+    }
+
+    /**
+     * Unites the edges of the vertices of a range, split in halves while it holds more than GRAIN half edges.
+     */
+    private static class Unite extends RecursiveAction {
+        private final WGraph_CSR graph;
+        private final AtomicIntegerArray parent;
+        private final int from, to;
+
+        Unite(WGraph_CSR graph, AtomicIntegerArray parent, int from, int to) {
+            this.graph = graph;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && graph.rowEnd(to - 1) - graph.rowStart(from) > GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Unite(graph, parent, from, mid), new Unite(graph, parent, mid, to));
+                return;
+            }
+            for (int v = from; v < to; v++) {
+                int end = graph.rowEnd(v);
+                for (int pos = graph.rowStart(v); pos < end; pos++) {
+                    int u = graph.target(pos);
+                    if (u > v) break;// the row is sorted, the edges to the bigger vertices are united from them
+                    union(parent, u, v);
+                }
+            }
+        }
+    }
+
+    private static int find(AtomicIntegerArray parent, int i) {
+        while (true) {
+            int p = parent.get(i);
+            if (p == i) return i;
+            int gp = parent.get(p);
+            if (gp != p) parent.compareAndSet(i, p, gp);// path halving, fails harmlessly if another thread got here first
+            i = gp;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) return;
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (parent.compareAndSet(a, a, b)) return;// a is still a root, link it under the smaller root
+        }
+    }
+
+    /**
+     * @return the snapshot these components were computed for.
+     */
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of connected components.
+     */
+    public int count() {
+        return sizes.length;
+    }
+
+    /**
+     * @return true iff there's a path between every two vertices (an empty graph is connected).
+     */
+    public boolean isConnected() {
+        return sizes.length <= 1;
+    }
+
+    /**
+     * @return the component ID of each vertex, by its dense index (see WGraph_CSR.keyAt).
+     */
+    public int[] ids() {
+        return ids.clone();
+    }
+
+    /**
+     * @return the number of vertices in each component, by its ID.
+     */
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * @return the ID of the component of the vertex, -1 if it's not in the graph.
+     */
+    public int componentOf(int key) {
+        int i = graph.indexOf(key);
+        return i < 0 ? -1 : ids[i];
+    }
+
+    /**
+     * @return the number of vertices in the component of the vertex, -1 if it's not in the graph.
+     */
+    public int sizeOf(int key) {
+        int i = graph.indexOf(key);
+        return i < 0 ? -1 : sizes[ids[i]];
+    }
+}
@@ -0,0 +1,340 @@
+package ex1.src;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compressed file format for weighted graphs, for storage and cold reads rather than for mapping (see GraphFormat).
+ * Every edge is stored once, in the row of its lower vertex (the graph is undirected), and all the numbers are
+ * variable length (varint, 7 bits per byte):
+ * header (40 bytes) - magic ("WGRZ"), version, number of vertices (n), number of edges, mode count, flags
+ *                     (FLAG_INFOS, FLAG_QUANTIZED), the quantization step (double), 8 reserved bytes.
+ * keys    - the first key (zigzag), then the gap to each next key (the keys are sorted).
+ * rows    - for each vertex i, the number of its neighbors above it, then the gap from i to the first of them and the
+ *           gaps between the next ones (they are sorted, so neighbors with near indices take a single byte), each one
+ *           followed by the weight of the edge: a double (8 bytes), or with FLAG_QUANTIZED, round(w / step) as a varint.
+ * infos   - (only with FLAG_INFOS) for each vertex, 1 + the length of its info in UTF-8 bytes (varint) followed by the
+ *           bytes, or 0 for a null info.
+ * write() quantizes by itself (with step 1) only if all the weights are whole numbers, which keeps them exact.
+ * write(g, file, step) quantizes any weights, so a weight is read back with an error of at most step/2.
+ * The file is decoded in one streaming pass through a fixed buffer, and the rows of both directions are then built
+ * in a second pass over the decoded edges (without sorting, the rows come out sorted).
+ */
+
+public final class CompressedGraphFormat {
+    static final int MAGIC = 0x5A524757;// "WGRZ" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final int FLAG_INFOS = 1, FLAG_QUANTIZED = 2;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private CompressedGraphFormat() {
+    }
+
+    /**
+     * Writes the graph to the file, keeping the weights exact (as whole numbers if they all are, otherwise as doubles).
+     * @param g - the graph to write
+     * @param file - the file name
+     * @throws IOException if the file could not be written
+     */
+    public static void write(weighted_graph g, String file) throws IOException {
+        WGraph_CSR csr = g instanceof WGraph_CSR ? (WGraph_CSR) g : WGraph_CSR.of(g);
+        boolean whole = true;
+        int m = csr.nodeSize() == 0 ? 0 : csr.rowEnd(csr.nodeSize() - 1);
+        for (int pos = 0; pos < m && whole; pos++) {
+            double w = csr.weight(pos);
+            whole = w == Math.rint(w) && w < 1e15;
+        }
+        write(csr, file, whole ? 1 : 0);
+    }
+
+    /**
+     * Writes the graph to the file, with every weight rounded to a multiple of the step.
+     * @param g - the graph to write
+     * @param file - the file name
+     * @param step - the quantization step (> 0), or 0 to keep the weights exact as doubles
+     * @throws IOException if the file could not be written
+     */
+    public static void write(weighted_graph g, String file, double step) throws IOException {
+        if (!(step >= 0) || Double.isInfinite(step)) throw new IllegalArgumentException("the step must be a positive number or 0");
+        WGraph_CSR csr = g instanceof WGraph_CSR ? (WGraph_CSR) g : WGraph_CSR.of(g);
+        int n = csr.nodeSize();
+        boolean infos = false;
+        for (node_info node : csr.getV()) {
+            if (node.getInfo() == null || !node.getInfo().isEmpty()) {
+                infos = true;
+                break;
+            }
+        }
+        int flags = (infos ? FLAG_INFOS : 0) | (step > 0 ? FLAG_QUANTIZED : 0);
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(csr.edgeSize()).putInt(csr.getMC()).putInt(flags)
+                    .putDouble(step).putLong(0);
+            for (int i = 0; i < n; i++) {
+                flushIfFull(channel, buf);
+                if (i == 0) putVarint(buf, zigzag(csr.keyAt(0)));
+                else putVarint(buf, (long) csr.keyAt(i) - csr.keyAt(i - 1));
+            }
+            for (int i = 0; i < n; i++) {
+                int start = csr.rowStart(i), end = csr.rowEnd(i);
+                int first = start;
+                while (first < end && csr.target(first) < i) first++;// the row is sorted, the neighbors above i follow
+                flushIfFull(channel, buf);
+                putVarint(buf, end - first);
+                int last = i;
+                for (int pos = first; pos < end; pos++) {
+                    flushIfFull(channel, buf);
+                    int t = csr.target(pos);
+                    putVarint(buf, t - last);
+                    last = t;
+                    if (step > 0) putVarint(buf, Math.round(csr.weight(pos) / step));
+                    else buf.putDouble(csr.weight(pos));
+                }
+            }
+            if (infos) {
+                for (node_info node : csr.getV()) {
+                    if (node.getInfo() == null) {
+                        flushIfFull(channel, buf);
+                        putVarint(buf, 0);
+                        continue;
+                    }
+                    byte[] bytes = node.getInfo().getBytes(StandardCharsets.UTF_8);
+                    flushIfFull(channel, buf);
+                    putVarint(buf, bytes.length + 1L);
+                    for (int from = 0; from < bytes.length; ) {
+                        flushIfFull(channel, buf);
+                        int len = Math.min(buf.remaining(), bytes.length - from);
+                        buf.put(bytes, from, len);
+                        from += len;
+                    }
+                }
+            }
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+
+    private static void putVarint(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /**
+     * Makes room for the longest record (a varint of a long and a double).
+     */
+    private static void flushIfFull(FileChannel channel, ByteBuffer buf) throws IOException {
+        if (buf.remaining() >= 32) return;
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Checks if the file starts with the magic number of this format.
+     */
+    public static boolean isCompressedFile(String file) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) return false;
+            }
+            return buf.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the graph in the file into a new (mutable) WGraph_DS (keeping the mode count it was saved with).
+     * @throws IOException if the file could not be read or is not a valid compressed graph file
+     */
+    public static WGraph_DS read(String file) throws IOException {
+        return GraphFormat.toGraph(readRows(file));
+    }
+
+    /**
+     * Reads the graph in the file into a new WGraph_CSR (keeping the mode count it was saved with).
+     * @throws IOException if the file could not be read or is not a valid compressed graph file
+     */
+    public static WGraph_CSR readCSR(String file) throws IOException {
+        GraphFormat.Rows rows = readRows(file);
+        return new WGraph_CSR(rows.keys, rows.offsets, rows.targets, rows.weights, rows.infos, rows.Mc);
+    }
+
+    static GraphFormat.Rows readRows(String file) throws IOException {
+        try (Decoder in = new Decoder(file)) {
+            ByteBuffer header = in.header();
+            if (header.getInt() != MAGIC) throw new IOException(file + ": not a compressed graph file (bad magic number)");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException(file + ": unsupported compressed graph file version " + version + " (expected " + VERSION + ")");
+            int n = header.getInt(), edges = header.getInt(), Mc = header.getInt(), flags = header.getInt();
+            double step = header.getDouble();
+            // every vertex takes at least 2 bytes (its key and its number of neighbors) and every edge at least 2 (its
+            // gap and its weight), so the counts are checked against the size of the file before anything is allocated
+            if (n < 0 || edges < 0 || edges > Integer.MAX_VALUE / 2 || 2L * n + 2L * edges > in.size() - HEADER_BYTES) {
+                throw new IOException(file + ": corrupt header (" + n + " vertices, " + edges + " edges in " + in.size() + " bytes)");
+            }
+            boolean quantized = (flags & FLAG_QUANTIZED) != 0;
+
+            GraphFormat.Rows rows = new GraphFormat.Rows();
+            rows.Mc = Mc;
+            rows.keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                long value = in.varint();
+                long key = i == 0 ? unzigzag(value) : (long) rows.keys[i - 1] + value;
+                if ((i > 0 && value == 0) || key > Integer.MAX_VALUE) throw new IOException(file + ": corrupt keys");
+                rows.keys[i] = (int) key;
+            }
+            // the edges as stored (each one once, from its lower vertex), and the degree of every vertex
+            int[] from = new int[edges], to = new int[edges];
+            double[] w = new double[edges];
+            int[] offsets = new int[n + 1];
+            int e = 0;
+            for (int i = 0; i < n; i++) {
+                long count = in.varint();
+                if (count > edges - e) throw new IOException(file + ": corrupt neighbors of vertex " + rows.keys[i]);
+                long t = i;
+                for (long k = 0; k < count; k++) {
+                    long gap = in.varint();
+                    t += gap;
+                    if (gap == 0 || t >= n) throw new IOException(file + ": corrupt neighbors of vertex " + rows.keys[i]);
+                    from[e] = i;
+                    to[e] = (int) t;
+                    w[e] = quantized ? in.varint() * step : in.getDouble();
+                    if (!(w[e] >= 0)) throw new IOException(file + ": corrupt weight of an edge of vertex " + rows.keys[i]);
+                    offsets[i + 1]++;
+                    offsets[(int) t + 1]++;
+                    e++;
+                }
+            }
+            if (e != edges) throw new IOException(file + ": " + e + " edges instead of " + edges);
+            for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+            // going over the edges by their lower vertex, every row gets its lower neighbors in increasing order and
+            // then its upper neighbors in increasing order, so the rows come out sorted
+            int[] next = new int[n];
+            System.arraycopy(offsets, 0, next, 0, n);
+            rows.targets = new int[2 * edges];
+            rows.weights = new double[2 * edges];
+            for (int k = 0; k < edges; k++) {
+                int a = from[k], b = to[k];
+                rows.targets[next[b]] = a;
+                rows.weights[next[b]++] = w[k];
+                rows.targets[next[a]] = b;
+                rows.weights[next[a]++] = w[k];
+            }
+            rows.offsets = offsets;
+            if ((flags & FLAG_INFOS) != 0) {
+                rows.infos = new String[n];
+                byte[] bytes = new byte[64];
+                for (int i = 0; i < n; i++) {
+                    long len = in.varint() - 1;
+                    if (len == -1) continue;// a null info
+                    if (len > Math.min(Integer.MAX_VALUE - 8, in.size())) throw new IOException(file + ": corrupt info of vertex " + i);
+                    if (len > bytes.length) bytes = new byte[(int) Math.max(len, bytes.length * 2L)];
+                    in.get(bytes, (int) len);
+                    rows.infos[i] = new String(bytes, 0, (int) len, StandardCharsets.UTF_8);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Reads the file through a fixed buffer, decoding the varints right from it.
+     */
+    private static final class Decoder implements AutoCloseable {
+        private final String file;
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private boolean eof;
+
+        Decoder(String file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+            buf.limit(0);
+        }
+
+        /**
+         * @return the size of the file in bytes.
+         */
+        long size() throws IOException {
+            return channel.size();
+        }
+
+        ByteBuffer header() throws IOException {
+            ensure(HEADER_BYTES);
+            ByteBuffer header = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            header.limit(header.position() + HEADER_BYTES);
+            buf.position(buf.position() + HEADER_BYTES);
+            return header;
+        }
+
+        /**
+         * Reads more of the file if the buffer has less than the given number of bytes.
+         * @throws EOFException if the file ends before that.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            fill(bytes);
+            if (buf.remaining() < bytes) throw new EOFException(file + ": unexpected end of file");
+        }
+
+        private void fill(int bytes) throws IOException {
+            buf.compact();
+            while (buf.position() < bytes && !eof) {
+                if (channel.read(buf) < 0) eof = true;
+            }
+            buf.flip();
+        }
+
+        long varint() throws IOException {
+            if (buf.remaining() < 10 && !eof) fill(10);// then the bytes of the varint are checked one by one
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (!buf.hasRemaining()) ensure(1);
+                byte b = buf.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IOException(file + ": corrupt number");
+        }
+
+        double getDouble() throws IOException {
+            ensure(8);
+            return buf.getDouble();
+        }
+
+        void get(byte[] bytes, int len) throws IOException {
+            for (int from = 0; from < len; ) {
+                ensure(1);
+                int chunk = Math.min(buf.remaining(), len - from);
+                buf.get(bytes, from, chunk);
+                from += chunk;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ex1.src;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A weighted graph that keeps track of its connected components as it changes, so isConnected and sameComponent are
+ * answered in near constant time instead of with a BFS over the whole graph.
+ * The changes are applied to the wrapped graph, and the components are kept in a union-find (disjoint sets, with union
+ * by size and path halving) over dense indices of the vertices:
+ * addNode adds a set of its own, and connect unions the sets of its endpoints.
+ * A union-find can't split a set, so removeNode and removeEdge (if they changed the graph) only mark it as stale, and
+ * it is rebuilt from the graph in O(V + E) on the next query. Changing the wrapped graph directly (seen by its getMC())
+ * makes it stale as well.
+ * WGraph_Algo.isConnected uses it when its graph is a ConnectivityTracker.
+ */
+
+public class ConnectivityTracker implements weighted_graph {
+    private final weighted_graph graph;
+    private final IntDoubleHashMap index = new IntDoubleHashMap();// key -> the dense index of the vertex
+    private int[] parent = new int[16], size = new int[16];
+    private int count, components;
+    private int mc;
+    private boolean stale;
+    private int rebuilds;
+
+    /**
+     * @param graph - the graph to track, the changes should be made through the tracker from now on
+     */
+    public ConnectivityTracker(weighted_graph graph) {
+        this.graph = graph;
+        rebuild();
+    }
+
+    /**
+     * @return the tracked graph (changing it directly makes the tracker rebuild on the next query).
+     */
+    public weighted_graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true iff there's a path between every two vertices (an empty graph is connected).
+     */
+    public boolean isConnected() {
+        refresh();
+        return components <= 1;
+    }
+
+    /**
+     * @return true iff both vertices are in the graph and there's a path between them.
+     */
+    public boolean sameComponent(int node1, int node2) {
+        refresh();
+        int a = indexOf(node1), b = indexOf(node2);
+        return a >= 0 && b >= 0 && find(a) == find(b);
+    }
+
+    /**
+     * @return the number of connected components of the graph.
+     */
+    public int componentCount() {
+        refresh();
+        return components;
+    }
+
+    /**
+     * @return the number of vertices in the component of the vertex, -1 if it's not in the graph.
+     */
+    public int componentSize(int key) {
+        refresh();
+        int i = indexOf(key);
+        return i < 0 ? -1 : size[find(i)];
+    }
+
+    /**
+     * @return how many times the components were rebuilt from the graph (after a removal or a direct change).
+     */
+    public int rebuildCount() {
+        return rebuilds;
+    }
+
+    private int indexOf(int key) {
+        return (int) index.get(key, -1);
+    }
+
+    private void refresh() {
+        if (stale || graph.getMC() != mc) rebuild();
+    }
+
+    private void rebuild() {
+        index.clear();
+        count = 0;
+        components = 0;
+        int n = graph.nodeSize();
+        if (parent.length < n) {
+            parent = new int[n];
+            size = new int[n];
+        }
+        for (node_info node : graph.getV()) add(node.getKey());
+        for (node_info node : graph.getV()) {
+            int a = indexOf(node.getKey());
+            for (node_info ni : graph.getV(node.getKey())) {
+                if (ni.getKey() > node.getKey()) union(a, indexOf(ni.getKey()));// every edge once
+            }
+        }
+        mc = graph.getMC();
+        stale = false;
+        rebuilds++;
+    }
+
+    private void add(int key) {
+        if (count == parent.length) {
+            parent = Arrays.copyOf(parent, count * 2);
+            size = Arrays.copyOf(size, count * 2);
+        }
+        index.put(key, count);
+        parent[count] = count;
+        size[count++] = 1;
+        components++;
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) return;
+        if (size[a] < size[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        parent[b] = a;
+        size[a] += size[b];
+        components--;
+    }
+
+    /**
+     * Checks if the graph was changed directly since the last change made through the tracker.
+     */
+    private boolean inSync(int before) {
+        if (before != mc) stale = true;
+        return !stale;
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        return graph.getNode(key);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return graph.hasEdge(node1, node2);
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        return graph.getEdge(node1, node2);
+    }
+
+    @Override
+    public void addNode(int key) {
+        int before = graph.getMC();
+        graph.addNode(key);
+        if (inSync(before) && graph.getMC() != before) add(key);
+        mc = graph.getMC();
+    }
+
+    @Override
+    public void connect(int node1, int node2, double w) {
+        int before = graph.getMC();
+        graph.connect(node1, node2, w);
+        if (inSync(before) && graph.getMC() != before) {
+            int a = indexOf(node1), b = indexOf(node2);
+            if (a < 0 || b < 0) stale = true;
+            else union(a, b);
+        }
+        mc = graph.getMC();
+    }
+
+    @Override
+    public Collection<node_info> getV() {
+        return graph.getV();
+    }
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        return graph.getV(node_id);
+    }
+
+    @Override
+    public node_info removeNode(int key) {
+        int before = graph.getMC();
+        node_info n = graph.removeNode(key);
+        if (inSync(before) && graph.getMC() != before) stale = true;
+        mc = graph.getMC();
+        return n;
+    }
+
+    @Override
+    public void removeEdge(int node1, int node2) {
+        int before = graph.getMC();
+        graph.removeEdge(node1, node2);
+        if (inSync(before) && graph.getMC() != before) stale = true;
+        mc = graph.getMC();
+    }
+
+    @Override
+    public int nodeSize() {
+        return graph.nodeSize();
+    }
+
+    @Override
+    public int edgeSize() {
+        return graph.edgeSize();
+    }
+
+    @Override
+    public int getMC() {
+        return graph.getMC();
+    }
+}
@@ -0,0 +1,417 @@
+package ex1.src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Contraction hierarchies for fast shortest path queries on a graph that does not change.
+ * Preprocessing: the vertices are contracted one by one (least "important" first, see priority). Contracting a vertex v
+ * removes it from the remaining graph and, for every two remaining neighbors u,w whose shortest path goes through v,
+ * adds a shortcut edge u-w with the weight of u-v-w (remembering v as its middle vertex). The order of contraction is the rank
+ * of the vertex, and the edges of every vertex to higher ranked vertices (original edges and shortcuts) form the upward graph.
+ * Query: a shortest path always has a shortest path in the upward graph which goes up from src and then down to dest,
+ * so a bidirectional Dijkstra in which both sides only go up finds it while settling very few vertices.
+ * The shortcuts on the path found are unpacked (recursively, by their middle vertex) back into the original edges.
+ * The hierarchy is built for the state of the graph at construction time, the queries throw an IllegalStateException
+ * if the graph's getMC() has changed since. Queries may run concurrently, each one with its own workspace from a pool.
+ */
+
+public class ContractionHierarchy {
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final weighted_graph original;
+    private final WGraph_CSR graph;
+    private final int Mc;
+    private final int[] rank;
+    private int[] upOffsets, upTargets, upMiddle;
+    private double[] upWeights;
+    private int shortcuts;
+
+    private final WorkspacePool<Query> queries = new WorkspacePool<>(Query::new);
+    private volatile int lastSettled;
+
+    /**
+     * Builds the hierarchy of the given graph.
+     * @param g - the graph, should not change while the hierarchy is used
+     */
+    public ContractionHierarchy(weighted_graph g) {
+        this.original = g;
+        this.graph = g instanceof WGraph_CSR ? (WGraph_CSR) g : WGraph_CSR.of(g);
+        this.Mc = g.getMC();
+        int n = graph.nodeSize();
+        this.rank = new int[n];
+        new Builder().contractAll();
+    }
+
+    /**
+     * The contraction of all the vertices, kept in its own class so that its (large) temporary state can be
+     * collected once the hierarchy is built.
+     */
+
+    private class Builder {
+        private final int n = graph.nodeSize();
+        private final IntDoubleHashMap[] adj = new IntDoubleHashMap[n];// the remaining neighbors of each vertex
+        private final HashMap<Long, Integer> middles = new HashMap<>();
+        private final int[] deletedNeighbors = new int[n];
+        // the witness search state
+        private final double[] wDist = new double[n];
+        private final int[] wStamp = new int[n];
+        private final IndexedMinHeap wHeap = new IndexedMinHeap(n);
+        private int wEpoch;
+        // the upward edges in the order they were found
+        private int[] from = new int[16], to = new int[16], mid = new int[16];
+        private double[] weight = new double[16];
+        private int count;
+
+        Builder() {
+            for (int u = 0; u < n; u++) {
+                adj[u] = new IntDoubleHashMap(graph.rowEnd(u) - graph.rowStart(u));
+                for (int pos = graph.rowStart(u); pos < graph.rowEnd(u); pos++) {
+                    adj[u].put(graph.target(pos), graph.weight(pos));
+                }
+            }
+        }
+
+        void contractAll() {
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.offer(v, priority(v));
+            }
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.minPriority()) {// lazy update - the priority got worse
+                    order.offer(v, p);
+                    continue;
+                }
+                rank[v] = nextRank++;
+                contract(v);
+            }
+            buildUpwardGraph();
+        }
+
+        /**
+         * The priority of a vertex for contraction - the edge difference (shortcuts added minus edges removed)
+         * plus the number of its neighbors that were already contracted, which keeps the contraction spread over the graph.
+         */
+        private double priority(int v) {
+            return shortcutsNeeded(v, false) - adj[v].size() + deletedNeighbors[v];
+        }
+
+        private void contract(int v) {
+            IntDoubleHashMap neighbors = adj[v];
+            for (int slot = 0; slot < neighbors.capacity(); slot++) {
+                if (!neighbors.isUsed(slot)) continue;
+                int u = neighbors.keyAt(slot);
+                Integer m = middles.get(pair(v, u));
+                addUpward(v, u, neighbors.valueAt(slot), m == null ? -1 : m);
+            }
+            shortcutsNeeded(v, true);
+            for (int slot = 0; slot < neighbors.capacity(); slot++) {
+                if (!neighbors.isUsed(slot)) continue;
+                int u = neighbors.keyAt(slot);
+                adj[u].remove(v);
+                deletedNeighbors[u]++;
+            }
+            adj[v] = null;
+        }
+
+        /**
+         * Counts (and if add is true, adds) the shortcuts needed to contract v: for every pair of remaining neighbors u,w
+         * a shortcut is needed unless a witness search finds a path from u to w which avoids v and isn't longer than u-v-w.
+         */
+        private int shortcutsNeeded(int v, boolean add) {
+            IntDoubleHashMap neighbors = adj[v];
+            int[] keys = new int[neighbors.size()];
+            double[] w = new double[keys.length];
+            double maxW = 0;
+            int k = 0;
+            for (int slot = 0; slot < neighbors.capacity(); slot++) {
+                if (!neighbors.isUsed(slot)) continue;
+                keys[k] = neighbors.keyAt(slot);
+                w[k] = neighbors.valueAt(slot);
+                maxW = Math.max(maxW, w[k]);
+                k++;
+            }
+            int ans = 0;
+            for (int i = 0; i < k - 1; i++) {
+                witnessSearch(keys[i], v, w[i] + maxW);
+                for (int j = i + 1; j < k; j++) {
+                    double via = w[i] + w[j];
+                    if (wStamp[keys[j]] == wEpoch && wDist[keys[j]] <= via) continue;// a witness was found
+                    ans++;
+                    if (add) addShortcut(keys[i], keys[j], via, v);
+                }
+            }
+            return ans;
+        }
+
+        /**
+         * A Dijkstra search from src over the remaining graph without the vertex skip, stopping at distance limit
+         * or after settling WITNESS_SETTLE_LIMIT vertices (missing a witness only adds an unneeded shortcut).
+         */
+        private void witnessSearch(int src, int skip, double limit) {
+            wEpoch++;
+            wHeap.clear();
+            wDist[src] = 0;
+            wStamp[src] = wEpoch;
+            wHeap.offer(src, 0);
+            int settled = 0;
+            while (!wHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (wHeap.minPriority() > limit) break;
+                int u = wHeap.poll();
+                settled++;
+                IntDoubleHashMap neighbors = adj[u];
+                for (int slot = 0; slot < neighbors.capacity(); slot++) {
+                    if (!neighbors.isUsed(slot)) continue;
+                    int x = neighbors.keyAt(slot);
+                    if (x == skip) continue;
+                    double alt = wDist[u] + neighbors.valueAt(slot);
+                    if (wStamp[x] != wEpoch || alt < wDist[x]) {
+                        wStamp[x] = wEpoch;
+                        wDist[x] = alt;
+                        wHeap.offer(x, alt);
+                    }
+                }
+            }
+        }
+
+        private void addShortcut(int u, int w, double weight, int middle) {
+            double current = adj[u].get(w, Double.POSITIVE_INFINITY);
+            if (weight >= current) return;
+            adj[u].put(w, weight);
+            adj[w].put(u, weight);
+            if (middles.put(pair(u, w), middle) == null) shortcuts++;
+        }
+
+        private void addUpward(int u, int v, double w, int middle) {
+            if (count == from.length) {
+                int size = count * 2;
+                from = Arrays.copyOf(from, size);
+                to = Arrays.copyOf(to, size);
+                mid = Arrays.copyOf(mid, size);
+                weight = Arrays.copyOf(weight, size);
+            }
+            from[count] = u;
+            to[count] = v;
+            weight[count] = w;
+            mid[count] = middle;
+            count++;
+        }
+
+        private void buildUpwardGraph() {
+            upOffsets = new int[n + 1];
+            for (int e = 0; e < count; e++) upOffsets[from[e] + 1]++;
+            for (int u = 0; u < n; u++) upOffsets[u + 1] += upOffsets[u];
+            upTargets = new int[count];
+            upWeights = new double[count];
+            upMiddle = new int[count];
+            int[] next = Arrays.copyOf(upOffsets, n);
+            for (int e = 0; e < count; e++) {
+                int pos = next[from[e]]++;
+                upTargets[pos] = to[e];
+                upWeights[pos] = weight[e];
+                upMiddle[pos] = mid[e];
+            }
+        }
+
+        private long pair(int a, int b) {
+            return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        }
+    }//Builder
+
+    /**
+     * Returns the shortest "distance" between two vertices.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @return - the sum of the edges between the nodes and -1 if there's no path.
+     */
+    public double shortestPathDist(int src, int dest) {
+        checkUnchanged();
+        int s = graph.indexOf(src), t = graph.indexOf(dest);
+        if (s < 0 || t < 0) return -1;
+        if (s == t) return 0;
+        Query q = queries.acquire();
+        try {
+            int meet = q.run(s, t);
+            return meet < 0 ? -1 : q.dist[0][meet] + q.dist[1][meet];
+        } finally {
+            queries.release(q);
+        }
+    }
+
+    /**
+     * Returns the the shortest path between two vertices as an ordered List of the vertices of the graph.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @return List<node_info> representing the path / empty list if the src==dest / null if there's no such node_info or no path.
+     */
+    public List<node_info> shortestPath(int src, int dest) {
+        checkUnchanged();
+        int s = graph.indexOf(src), t = graph.indexOf(dest);
+        if (s < 0 || t < 0) return null;
+        if (s == t) return new ArrayList<>();
+        Query q = queries.acquire();
+        try {
+            int meet = q.run(s, t);
+            if (meet < 0) return null;
+            int[][] prev = q.prev;
+
+            int up = 0;
+            for (int i = meet; i != s; i = prev[0][i]) up++;
+            int[] upward = new int[up + 1];// the forward side, from src up to meet
+            for (int i = meet, k = up; k >= 0; i = prev[0][i], k--) upward[k] = i;
+
+            List<node_info> path = new ArrayList<>();
+            path.add(original.getNode(graph.keyAt(s)));
+            for (int k = 1; k < upward.length; k++) {
+                unpack(upward[k - 1], upward[k], path);
+            }
+            for (int i = meet; i != t; i = prev[1][i]) {
+                unpack(i, prev[1][i], path);
+            }
+            return path;
+        } finally {
+            queries.release(q);
+        }
+    }
+
+    /**
+     * The workspace of one query (the labels of both sides of the upward search), taken from the queries pool
+     * so concurrent queries don't share state. The labels are valid only if stamped with the current query (epoch).
+     */
+
+    private class Query {
+        private final double[][] dist = new double[2][];
+        private final int[][] prev = new int[2][];
+        private final int[][] stamp = new int[2][];
+        private final IndexedMinHeap[] heap = new IndexedMinHeap[2];
+        private int epoch;
+
+        Query() {
+            int n = graph.nodeSize();
+            for (int side = 0; side < 2; side++) {
+                dist[side] = new double[n];
+                prev[side] = new int[n];
+                stamp[side] = new int[n];
+                heap[side] = new IndexedMinHeap(n);
+            }
+        }
+
+        /**
+         * The bidirectional upward search, each side stops once its smallest key is at least the best distance found.
+         * @return the index of the highest vertex on the shortest path, -1 if there's no path.
+         */
+        int run(int s, int t) {
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp[0], 0);
+                Arrays.fill(stamp[1], 0);
+                epoch = 0;
+            }
+            epoch++;
+            int settled = 0;
+            heap[0].clear();
+            heap[1].clear();
+            label(0, s, 0, -1);
+            label(1, t, 0, -1);
+            double mu = Double.POSITIVE_INFINITY;
+            int meet = -1;
+            int side = 0;
+            while (true) {
+                boolean forward = !heap[0].isEmpty() && heap[0].minPriority() < mu;
+                boolean backward = !heap[1].isEmpty() && heap[1].minPriority() < mu;
+                if (!forward && !backward) break;
+                if (!(side == 0 ? forward : backward)) side = 1 - side;
+                int u = heap[side].poll();
+                settled++;
+                if (stamp[1 - side][u] == epoch && dist[side][u] + dist[1 - side][u] < mu) {
+                    mu = dist[side][u] + dist[1 - side][u];
+                    meet = u;
+                }
+                for (int pos = upOffsets[u]; pos < upOffsets[u + 1]; pos++) {
+                    int v = upTargets[pos];
+                    double alt = dist[side][u] + upWeights[pos];
+                    if (stamp[side][v] != epoch || alt < dist[side][v]) {
+                        label(side, v, alt, u);
+                        if (stamp[1 - side][v] == epoch && alt + dist[1 - side][v] < mu) {
+                            mu = alt + dist[1 - side][v];
+                            meet = v;
+                        }
+                    }
+                }
+                side = 1 - side;
+            }
+            lastSettled = settled;
+            return meet;
+        }
+
+        private void label(int side, int v, double d, int p) {
+            stamp[side][v] = epoch;
+            dist[side][v] = d;
+            prev[side][v] = p;
+            heap[side].offer(v, d);
+        }
+    }//Query
+
+    /**
+     * Appends the original vertices of the upward graph edge a-b (not including a) to the path,
+     * replacing each shortcut by the two edges through its middle vertex.
+     */
+    private void unpack(int a, int b, List<node_info> path) {
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = a;
+        stack[top++] = b;
+        while (top > 0) {
+            int y = stack[--top], x = stack[--top];
+            int m = middle(x, y);
+            if (m < 0) {
+                path.add(original.getNode(graph.keyAt(y)));
+                continue;
+            }
+            if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = m;// (m, y) is unpacked after (x, m)
+            stack[top++] = y;
+            stack[top++] = x;
+            stack[top++] = m;
+        }
+    }
+
+    /**
+     * @return the middle vertex of the shortcut x-y, -1 if it is an original edge.
+     */
+    private int middle(int x, int y) {
+        int low = rank[x] < rank[y] ? x : y, high = low == x ? y : x;
+        for (int pos = upOffsets[low]; pos < upOffsets[low + 1]; pos++) {
+            if (upTargets[pos] == high) return upMiddle[pos];
+        }
+        throw new IllegalStateException("no edge " + graph.keyAt(x) + "-" + graph.keyAt(y) + " in the hierarchy");
+    }
+
+    private void checkUnchanged() {
+        if (original.getMC() != Mc) {
+            throw new IllegalStateException("the graph has changed since the hierarchy was built");
+        }
+    }
+
+    /**
+     * @return the number of shortcuts added by the preprocessing.
+     */
+    public int shortcutCount() {
+        return shortcuts;
+    }
+
+    /**
+     * @return the number of vertices settled by the last query (of any thread) that finished.
+     */
+    public int settledCount() {
+        return lastSettled;
+    }
+
+    public weighted_graph getGraph() {
+        return original;
+    }
+}
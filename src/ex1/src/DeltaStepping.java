@@ -0,0 +1,309 @@
+package ex1.src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The shortest distances from a source vertex to all of the vertices of a WGraph_CSR snapshot, computed by the
+ * delta-stepping algorithm (Meyer and Sanders) whose relaxations run in parallel on a fork-join pool.
+ * The vertices are kept in buckets of width delta by their tentative distance, and the buckets are settled in order:
+ * 1. the edges of weight <= delta (light) from the vertices of the bucket are relaxed in parallel, which may put
+ *    vertices back in the same bucket, so this repeats until the bucket stays empty.
+ * 2. the edges of weight > delta (heavy) from all of the vertices removed from the bucket are relaxed in parallel once,
+ *    they can't lead back into the bucket.
+ * A relaxation lowers the distance of the vertex with a compareAndSet on the bits of the double (for non-negative
+ * doubles the order of the bits is the order of the values), so no locks are taken. The relaxed vertices are collected
+ * by each task and put in their buckets after the tasks join.
+ * A small delta settles the distances like Dijkstra (little repeated work, little parallelism), a large one like
+ * Bellman-Ford (much parallelism, much repeated work). defaultDelta picks the largest weight divided by the average
+ * degree. The buckets are cyclic: the tentative distances are never more than the largest weight past the current bucket,
+ * so there are largest weight / delta + 2 of them, which is limited to twice the number of vertices (or MIN_BUCKETS).
+ * The results match DijkstraEngine (up to the rounding of the sums on equally long paths).
+ * WGraph_Algo.deltaStepping(src, delta) runs it for its graph.
+ */
+
+public class DeltaStepping {
+    private static final int GRAIN = 1 << 10;// the number of vertices below which a task runs without splitting
+    private static final int MIN_BUCKETS = 64;// the number of buckets always allowed, however small the graph
+    private static final long INFINITY = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+    private final WGraph_CSR graph;
+    private final double delta;
+    private final double[] dist;
+    private int phases;
+
+    /**
+     * Runs with the default delta on the common fork-join pool.
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     */
+    public DeltaStepping(WGraph_CSR graph, int source) {
+        this(graph, source, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs on the common fork-join pool.
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     * @param delta - the width of the buckets (> 0)
+     */
+    public DeltaStepping(WGraph_CSR graph, int source, double delta) {
+        this(graph, source, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     * @param delta - the width of the buckets (> 0), at least the largest weight divided by twice the number of vertices
+     *                (or by MIN_BUCKETS for a small graph), which limits the number of buckets
+     * @param pool - the pool to run the relaxations on
+     */
+    public DeltaStepping(WGraph_CSR graph, int source, double delta, ForkJoinPool pool) {
+        if (!(delta > 0) || Double.isInfinite(delta)) throw new IllegalArgumentException("delta must be a positive number");
+        int n = graph.nodeSize();
+        double maxWeight = maxWeight(graph);
+        double buckets = Math.ceil(maxWeight / delta) + 2, limit = Math.max(MIN_BUCKETS, 2.0 * n);
+        if (buckets > limit) {
+            throw new IllegalArgumentException("delta is too small for the weights of the graph (it needs more than "
+                    + (long) limit + " buckets)");
+        }
+        this.graph = graph;
+        this.delta = delta;
+        this.dist = new double[n];
+        Arrays.fill(dist, -1);
+        int src = graph.indexOf(source);
+        if (src < 0) return;
+
+        Search search = new Search(graph, delta, (int) buckets);
+        search.run(src, pool);
+        this.phases = search.phases;
+        for (int v = 0; v < n; v++) {
+            long bits = search.tentative.get(v);
+            if (bits != INFINITY) dist[v] = Double.longBitsToDouble(bits);
+        }
+    }
+
+    /**
+     * @return the largest weight divided by the average degree (1 for a graph with no edges of a positive weight).
+     */
+    public static double defaultDelta(WGraph_CSR graph) {
+        int n = graph.nodeSize();
+        int m = n == 0 ? 0 : graph.rowEnd(n - 1);
+        double max = maxWeight(graph);
+        if (m == 0 || max == 0) return 1;
+        return max / ((double) m / n);
+    }
+
+    private static double maxWeight(WGraph_CSR graph) {
+        int m = graph.nodeSize() == 0 ? 0 : graph.rowEnd(graph.nodeSize() - 1);
+        double max = 0;
+        for (int pos = 0; pos < m; pos++) {
+            max = Math.max(max, graph.weight(pos));
+        }
+        return max;
+    }
+
+    /**
+     * A growable list of vertex indices.
+     */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+    }
+
+    /**
+     * The state of one run: the tentative distances, the cyclic buckets and the vertices relaxed by the tasks.
+     */
+    private static final class Search {
+        private final WGraph_CSR graph;
+        private final double delta;
+        private final AtomicLongArray tentative;
+        private final IntList[] buckets;
+        private final int[] taken;// the last round each vertex was taken from a bucket in, to take it once per round
+        private final int[] settledIn;// the last phase each vertex was removed from a bucket in
+        private final List<IntList> relaxed = new ArrayList<>();
+        private int round, phases;
+
+        Search(WGraph_CSR graph, double delta, int buckets) {
+            int n = graph.nodeSize();
+            this.graph = graph;
+            this.delta = delta;
+            this.tentative = new AtomicLongArray(n);
+            for (int v = 0; v < n; v++) tentative.set(v, INFINITY);
+            this.buckets = new IntList[buckets];
+            this.taken = new int[n];
+            this.settledIn = new int[n];
+        }
+
+        private long bucketOf(double d) {
+            return (long) (d / delta);
+        }
+
+        void run(int src, ForkJoinPool pool) {
+            tentative.set(src, 0);
+            add(src);
+            int pending = 1;// the number of entries in all of the buckets (some of them outdated)
+            IntList settled = new IntList();
+            for (long i = 0; pending > 0; i++) {
+                IntList bucket = buckets[(int) (i % buckets.length)];
+                if (bucket == null || bucket.size == 0) continue;
+                settled.size = 0;
+                while (bucket.size > 0) {
+                    int[] items = bucket.items;
+                    int size = bucket.size;
+                    pending -= size;
+                    bucket.items = new int[16];
+                    bucket.size = 0;
+                    round++;
+                    int count = 0;
+                    for (int k = 0; k < size; k++) {// the vertices still in this bucket, each one once
+                        int v = items[k];
+                        if (taken[v] == round || bucketOf(Double.longBitsToDouble(tentative.get(v))) != i) continue;
+                        taken[v] = round;
+                        items[count++] = v;
+                        if (settledIn[v] != phases + 1) {
+                            settledIn[v] = phases + 1;
+                            settled.add(v);
+                        }
+                    }
+                    pending += relax(pool, items, count, true);
+                }
+                pending += relax(pool, settled.items, settled.size, false);
+                phases++;
+            }
+        }
+
+        /**
+         * Relaxes the light or the heavy edges of the vertices in parallel, and puts the relaxed vertices in buckets.
+         * @return the number of vertices put in buckets.
+         */
+        private int relax(ForkJoinPool pool, int[] vertices, int count, boolean light) {
+            if (count == 0) return 0;
+            Relax task = new Relax(this, vertices, 0, count, light);
+            if (count > GRAIN) pool.invoke(task);
+            else task.compute();// a small bucket runs in this thread, saving the handoff to the pool
+            int added = 0;
+            for (IntList list : relaxed) {
+                for (int k = 0; k < list.size; k++) {
+                    add(list.items[k]);
+                }
+                added += list.size;
+            }
+            relaxed.clear();
+            return added;
+        }
+
+        /**
+         * Puts the vertex in the bucket of its tentative distance.
+         */
+        private void add(int v) {
+            int b = (int) (bucketOf(Double.longBitsToDouble(tentative.get(v))) % buckets.length);
+            if (buckets[b] == null) buckets[b] = new IntList();
+            buckets[b].add(v);
+        }
+
+        /**
+         * Lowers the distance of the vertex to d if it's shorter.
+         * @return true iff the distance was lowered.
+         */
+        boolean lower(int v, double d) {
+            long bits = Double.doubleToRawLongBits(d);
+            while (true) {
+                long current = tentative.get(v);
+                if (current <= bits) return false;
+                if (tentative.compareAndSet(v, current, bits)) return true;
+            }
+        }
+
+        synchronized void publish(IntList list) {
+            relaxed.add(list);
+        }
+    }
+
+    /**
+     * Relaxes the light or heavy edges of a range of vertices, split in halves above GRAIN.
+     */
+    private static class Relax extends RecursiveAction {
+        private final Search search;
+        private final int[] vertices;
+        private final int from, to;
+        private final boolean light;
+
+        Relax(Search search, int[] vertices, int from, int to, boolean light) {
+            this.search = search;
+            this.vertices = vertices;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Relax(search, vertices, from, mid, light), new Relax(search, vertices, mid, to, light));
+                return;
+            }
+            WGraph_CSR g = search.graph;
+            double delta = search.delta;
+            IntList found = new IntList();
+            for (int k = from; k < to; k++) {
+                int u = vertices[k];
+                double du = Double.longBitsToDouble(search.tentative.get(u));
+                int end = g.rowEnd(u);
+                for (int pos = g.rowStart(u); pos < end; pos++) {
+                    double w = g.weight(pos);
+                    if ((w <= delta) != light) continue;
+                    int v = g.target(pos);
+                    if (search.lower(v, du + w)) found.add(v);
+                }
+            }
+            if (found.size > 0) search.publish(found);
+        }
+    }
+
+    /**
+     * @return the snapshot this search ran on.
+     */
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the width of the buckets.
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return the number of buckets that were settled.
+     */
+    public int phases() {
+        return phases;
+    }
+
+    /**
+     * @return the shortest distance from the source to the vertex, -1 if it's not in the graph or can't be reached.
+     */
+    public double dist(int key) {
+        int i = graph.indexOf(key);
+        return i < 0 ? -1 : dist[i];
+    }
+
+    /**
+     * @return the shortest distance of each vertex by its dense index (see WGraph_CSR.keyAt), -1 for unreachable vertices.
+     */
+    public double[] distances() {
+        return dist.clone();
+    }
+}
@@ -0,0 +1,181 @@
+package ex1.src;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Dijkstra's shortest path algorithm over a WGraph_CSR snapshot.
+ * All of the state of a search is kept in primitive arrays indexed by the dense index of the vertices:
+ * dist - the (tentative) distance of each vertex from the source.
+ * prev - the index of the vertex before each vertex on its shortest path, -1 for the source.
+ * stamp - the search (epoch) in which dist and prev of the vertex were set, older values mean the vertex wasn't reached,
+ * so the arrays don't have to be reset before every search.
+ * settled - a bitset of the vertices whose distance is final.
+ * The frontier is kept in an IndexedMinHeap so each vertex is in the queue at most once (decrease-key instead of re-inserting).
+ * This runs in O((V+E)*log(V)), a point to point query stops as soon as the target is settled.
+ * Given a heuristic (a lower bound of the distance to the target) the same search runs as A*.
+ * An engine is the workspace of one search at a time, concurrent queries should each use their own engine
+ * (see WorkspacePool), the graph itself is only read.
+ */
+
+public class DijkstraEngine {
+    private final WGraph_CSR graph;
+    private final double[] dist;
+    private final int[] prev;
+    private final int[] stamp;
+    private final long[] settled;
+    private final IndexedMinHeap heap;
+    private double[] h;
+    private int[] hStamp;
+    private int epoch, settledCount;
+
+    public DijkstraEngine(WGraph_CSR graph) {
+        this.graph = graph;
+        int n = graph.nodeSize();
+        this.dist = new double[n];
+        this.prev = new int[n];
+        this.stamp = new int[n];
+        this.settled = new long[(n + 63) >>> 6];
+        this.heap = new IndexedMinHeap(n);
+    }
+
+    /**
+     * Computes the shortest distances from the vertex in the given index to all of the vertices.
+     * @param src - the dense index of the source vertex
+     */
+    public void run(int src) {
+        run(src, -1);
+    }
+
+    /**
+     * Computes the shortest distance from src to target, stopping as soon as the target is settled.
+     * Only the distances (and previous vertices) of settled vertices are final after an early stop.
+     * @param src - the dense index of the source vertex
+     * @param target - the dense index of the target vertex, -1 to compute the distances to all of the vertices
+     */
+    public void run(int src, int target) {
+        run(src, target, null);
+    }
+
+    /**
+     * A* search from src to target: the queue is ordered by the distance from src plus a lower bound (the heuristic)
+     * of the distance to the target, so vertices leading away from the target are explored later (or never).
+     * The heuristic must be admissible (never more than the real distance), in that case the distance of the target
+     * is the shortest one. A vertex may be settled again if a shorter path to it is found later, so heuristics which
+     * are admissible but not consistent still give the right result. With a null heuristic this is Dijkstra's algorithm.
+     * @param src - the dense index of the source vertex
+     * @param target - the dense index of the target vertex, -1 to compute the distances to all of the vertices
+     * @param heuristic - the lower bound of the distance from a vertex (by its dense index) to the target, may be null.
+     */
+    public void run(int src, int target, IntToDoubleFunction heuristic) {
+        search(src, target, heuristic, null, 0);
+    }
+
+    /**
+     * One to many query: computes the shortest distances from src to the given targets, stopping as soon as all of them
+     * are settled (or the whole component of src was explored).
+     * @param src - the dense index of the source vertex
+     * @param targets - the dense indices of the target vertices, negative indices are ignored
+     */
+    public void run(int src, int[] targets) {
+        long[] wanted = new long[settled.length];
+        int remaining = 0;
+        for (int t : targets) {
+            if (t >= 0 && (wanted[t >>> 6] & (1L << t)) == 0) {
+                wanted[t >>> 6] |= 1L << t;
+                remaining++;
+            }
+        }
+        search(src, -1, null, wanted, remaining);
+    }
+
+    private void search(int src, int target, IntToDoubleFunction heuristic, long[] wanted, int remaining) {
+        if (heuristic != null && h == null) {
+            h = new double[dist.length];
+            hStamp = new int[dist.length];
+        }
+        if (epoch == Integer.MAX_VALUE) {// the stamps are reset once every 2^31 searches
+            Arrays.fill(stamp, 0);
+            if (hStamp != null) Arrays.fill(hStamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+        Arrays.fill(settled, 0);
+        heap.clear();
+        settledCount = 0;
+
+        dist[src] = 0;
+        prev[src] = -1;
+        stamp[src] = epoch;
+        if (wanted != null && remaining == 0) return;
+        heap.offer(src, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u >>> 6] |= 1L << u;
+            settledCount++;
+            if (u == target) break;// the distance of the target is final
+            if (wanted != null && (wanted[u >>> 6] & (1L << u)) != 0 && --remaining == 0) break;
+            double du = dist[u];
+            for (int pos = graph.rowStart(u), end = graph.rowEnd(u); pos < end; pos++) {
+                int v = graph.target(pos);
+                if (heuristic == null && isSettled(v)) continue;
+                double alt = du + graph.weight(pos);
+                if (stamp[v] != epoch || alt < dist[v]) {
+                    stamp[v] = epoch;
+                    dist[v] = alt;
+                    prev[v] = u;
+                    heap.offer(v, heuristic == null ? alt : alt + estimate(v, heuristic));
+                }
+            }
+        }
+    }
+
+    /**
+     * The heuristic of each vertex is computed once per search.
+     */
+    private double estimate(int v, IntToDoubleFunction heuristic) {
+        if (hStamp[v] != epoch) {
+            hStamp[v] = epoch;
+            h[v] = heuristic.applyAsDouble(v);
+        }
+        return h[v];
+    }
+
+    /**
+     * A point to point query that only returns the distance (no path is built).
+     * @return the shortest distance from src to target, infinity if there's no path.
+     */
+    public double distance(int src, int target) {
+        run(src, target);
+        return dist(target);
+    }
+
+    public boolean isSettled(int index) {
+        return (settled[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the distance of the vertex from the source of the last run, infinity if it can't be reached.
+     */
+    public double dist(int index) {
+        return stamp[index] == epoch ? dist[index] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return the index of the vertex before the given one on the shortest path from the source, -1 if none.
+     */
+    public int prev(int index) {
+        return stamp[index] == epoch ? prev[index] : -1;
+    }
+
+    /**
+     * @return the number of vertices settled (polled from the queue) in the last run.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,465 @@
+package ex1.src;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Streaming import and export of graphs as text edge lists:
+ * CSV - a line "u,v,w" for every edge (spaces around the values are allowed). Empty lines, lines starting with '#'
+ *       and a first line that does not start with a number (a header) are skipped.
+ * DIMACS (.gr, the format of the shortest path challenge) - "c ..." comment lines, a "p sp n m" line (n vertices
+ *       numbered 1..n, m arcs) and an "a u v w" line for every arc. The graph is undirected, so the two arcs of an
+ *       edge become one edge (when they differ, the weight of the last arc wins).
+ * The files are read through a fixed size byte buffer and the numbers are parsed right from the bytes, without
+ * creating a String for each line, so the memory used does not depend on the size of the file (except for the graph
+ * being built). The edges are passed straight to a WGraph_Builder (or to connect of a graph) as they are parsed.
+ * A line that can't be parsed is reported by an IOException with the file name and the line number.
+ */
+
+public final class EdgeListFormat {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private EdgeListFormat() {
+    }
+
+    /**
+     * Where the parsed vertices and edges go.
+     */
+    private interface Sink {
+        void node(int key);
+
+        void edge(int node1, int node2, double w);
+    }
+
+    private static Sink sink(WGraph_Builder builder) {
+        return new Sink() {
+            @Override
+            public void node(int key) {
+                builder.addNode(key);
+            }
+
+            @Override
+            public void edge(int node1, int node2, double w) {
+                builder.addEdge(node1, node2, w);
+            }
+        };
+    }
+
+    private static Sink sink(weighted_graph g) {
+        return new Sink() {
+            @Override
+            public void node(int key) {
+                g.addNode(key);
+            }
+
+            @Override
+            public void edge(int node1, int node2, double w) {
+                g.addNode(node1);
+                g.addNode(node2);
+                g.connect(node1, node2, w);
+            }
+        };
+    }
+
+    /**
+     * Reads a CSV edge list into a new WGraph_DS (through a WGraph_Builder).
+     * @param file - the file name
+     * @return the graph
+     * @throws IOException if the file could not be read or has a line that can't be parsed
+     */
+    public static WGraph_DS readCSV(String file) throws IOException {
+        WGraph_Builder builder = new WGraph_Builder();
+        readCSV(file, builder);
+        return builder.build();
+    }
+
+    /**
+     * Adds the edges of a CSV edge list to the builder.
+     */
+    public static void readCSV(String file, WGraph_Builder builder) throws IOException {
+        readCSV(file, sink(builder));
+    }
+
+    /**
+     * Adds the edges of a CSV edge list to the graph by connect (adding their vertices if needed).
+     */
+    public static void readCSV(String file, weighted_graph g) throws IOException {
+        readCSV(file, sink(g));
+    }
+
+    private static void readCSV(String file, Sink sink) throws IOException {
+        try (Parser in = new Parser(file)) {
+            boolean first = true;
+            while (in.skipBlank()) {
+                int c = in.peek();
+                if (c == '#' || (first && !in.atNumber())) {
+                    in.skipLine();
+                } else {
+                    int u = in.readInt();
+                    in.expect(',');
+                    int v = in.readInt();
+                    in.expect(',');
+                    double w = in.readDouble();
+                    in.endLine();
+                    sink.edge(u, v, w);
+                }
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * Reads a DIMACS (.gr) graph into a new WGraph_DS (through a WGraph_Builder).
+     * @param file - the file name
+     * @return the graph
+     * @throws IOException if the file could not be read or has a line that can't be parsed
+     */
+    public static WGraph_DS readDimacs(String file) throws IOException {
+        WGraph_Builder builder = new WGraph_Builder();
+        readDimacs(file, builder);
+        return builder.build();
+    }
+
+    /**
+     * Adds the vertices (1..n) and the edges of a DIMACS graph to the builder.
+     */
+    public static void readDimacs(String file, WGraph_Builder builder) throws IOException {
+        readDimacs(file, sink(builder));
+    }
+
+    /**
+     * Adds the vertices (1..n) and the edges of a DIMACS graph to the graph by addNode and connect.
+     */
+    public static void readDimacs(String file, weighted_graph g) throws IOException {
+        readDimacs(file, sink(g));
+    }
+
+    private static void readDimacs(String file, Sink sink) throws IOException {
+        try (Parser in = new Parser(file)) {
+            while (in.skipBlank()) {
+                int c = in.peek();
+                if (c == 'c') {
+                    in.skipLine();
+                } else if (c == 'p') {
+                    in.expect('p');
+                    in.skipSpaces();
+                    in.expect('s');
+                    in.expect('p');
+                    int n = in.readInt();
+                    in.readInt();// the number of arcs
+                    in.endLine();
+                    for (int key = 1; key <= n; key++) {
+                        sink.node(key);
+                    }
+                } else if (c == 'a') {
+                    in.expect('a');
+                    int u = in.readInt();
+                    int v = in.readInt();
+                    double w = in.readDouble();
+                    in.endLine();
+                    sink.edge(u, v, w);
+                } else {
+                    throw in.error("unknown line type '" + (char) c + "'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every edge of the graph once, as a line "u,v,w" (u < v). Vertices without edges are not written.
+     * @param g - the graph
+     * @param file - the file name
+     * @throws IOException if the file could not be written
+     */
+    public static void writeCSV(weighted_graph g, String file) throws IOException {
+        try (Writer out = new Writer(file)) {
+            for (node_info n : g.getV()) {
+                int u = n.getKey();
+                for (node_info neighbor : g.getV(u)) {
+                    int v = neighbor.getKey();
+                    if (u >= v) continue;
+                    out.writeInt(u);
+                    out.write(',');
+                    out.writeInt(v);
+                    out.write(',');
+                    out.writeDouble(g.getEdge(u, v));
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the graph in the DIMACS format, with both arcs of every edge. The keys are written as they are,
+     * so the file is a valid DIMACS file only if the keys of the graph are 1..n.
+     * @param g - the graph
+     * @param file - the file name
+     * @throws IOException if the file could not be written
+     */
+    public static void writeDimacs(weighted_graph g, String file) throws IOException {
+        try (Writer out = new Writer(file)) {
+            out.writeAscii("p sp ");
+            out.writeInt(g.nodeSize());
+            out.write(' ');
+            out.writeInt(2 * g.edgeSize());
+            out.write('\n');
+            for (node_info n : g.getV()) {
+                int u = n.getKey();
+                for (node_info neighbor : g.getV(u)) {
+                    out.writeAscii("a ");
+                    out.writeInt(u);
+                    out.write(' ');
+                    out.writeInt(neighbor.getKey());
+                    out.write(' ');
+                    out.writeDouble(g.getEdge(u, neighbor.getKey()));
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the bytes of a file through a fixed buffer and parses the numbers right from it.
+     */
+    private static final class Parser implements AutoCloseable {
+        private static final double[] POWERS = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+        private final String file;
+        private final InputStream in;
+        private final byte[] buf = new byte[BUFFER_BYTES];
+        private int pos, limit;
+        private long line = 1;
+        private final StringBuilder number = new StringBuilder(32);// the characters of the number being parsed
+
+        Parser(String file) throws IOException {
+            this.file = file;
+            this.in = Files.newInputStream(Paths.get(file));
+        }
+
+        /**
+         * @return the next byte (without consuming it), -1 at the end of the file.
+         */
+        int peek() throws IOException {
+            if (pos == limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buf[pos];
+        }
+
+        private void next() {
+            pos++;
+        }
+
+        void skipSpaces() throws IOException {
+            int c;
+            while ((c = peek()) == ' ' || c == '\t' || c == '\r') next();
+        }
+
+        /**
+         * Skips spaces and empty lines.
+         * @return false at the end of the file.
+         */
+        boolean skipBlank() throws IOException {
+            while (true) {
+                skipSpaces();
+                int c = peek();
+                if (c != '\n') return c != -1;
+                next();
+                line++;
+            }
+        }
+
+        void skipLine() throws IOException {
+            int c;
+            while ((c = peek()) != -1 && c != '\n') next();
+            if (c == '\n') {
+                next();
+                line++;
+            }
+        }
+
+        /**
+         * Expects nothing but spaces up to the end of the line (or of the file).
+         */
+        void endLine() throws IOException {
+            skipSpaces();
+            int c = peek();
+            if (c != -1 && c != '\n') throw error("unexpected '" + (char) c + "' at the end of the line");
+            skipLine();
+        }
+
+        void expect(char expected) throws IOException {
+            skipSpaces();
+            if (peek() != expected) throw error("expected '" + expected + "'");
+            next();
+        }
+
+        boolean atNumber() throws IOException {
+            int c = peek();
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+        }
+
+        int readInt() throws IOException {
+            skipSpaces();
+            boolean negative = false;
+            int c = peek();
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                next();
+                c = peek();
+            }
+            if (c < '0' || c > '9') throw error("expected an integer");
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE + 1L) throw error("integer out of range");
+                next();
+                c = peek();
+            }
+            if (negative) value = -value;
+            if (value > Integer.MAX_VALUE) throw error("integer out of range");
+            return (int) value;
+        }
+
+        /**
+         * Parses a decimal number. Numbers with up to 15 significant digits and a small exponent are computed
+         * exactly from a long and a power of 10 (both exact in a double, so the one division or multiplication rounds
+         * correctly), other numbers are parsed by Double.parseDouble from the characters collected on the way.
+         */
+        double readDouble() throws IOException {
+            skipSpaces();
+            number.setLength(0);
+            long mantissa = 0;
+            int digits = 0, scale = 0;
+            boolean negative = false, any = false;
+            int c = peek();
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                next();
+                c = peek();
+            }
+            for (boolean fraction = false; ; c = peek()) {
+                if (c >= '0' && c <= '9') {
+                    any = true;
+                    if (mantissa == 0 && c == '0') {
+                        if (fraction) scale--;// leading zeros
+                    } else {
+                        if (digits < 18) mantissa = mantissa * 10 + (c - '0');
+                        else if (!fraction) scale++;
+                        digits++;
+                        if (fraction && digits <= 18) scale--;
+                    }
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                number.append((char) c);
+                next();
+            }
+            if (!any) throw error("expected a number");
+            if (c == 'e' || c == 'E') {
+                next();
+                int exponent = readInt();
+                scale += exponent;
+                number.append('e').append(exponent);
+            }
+            c = peek();
+            if (c != -1 && c != ',' && c != ' ' && c != '\t' && c != '\r' && c != '\n') throw error("expected a number");
+            double value;
+            if (mantissa == 0) {
+                value = 0;
+            } else if (digits <= 15 && scale >= -22 && scale <= 22) {
+                value = scale < 0 ? mantissa / POWERS[-scale] : mantissa * POWERS[scale];
+            } else {
+                value = Double.parseDouble(number.toString());
+            }
+            return negative ? -value : value;
+        }
+
+        IOException error(String message) {
+            return new IOException(file + ":" + line + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes bytes through a fixed buffer, formatting the numbers right into it.
+     */
+    private static final class Writer implements AutoCloseable {
+        private final OutputStream out;
+        private final byte[] buf = new byte[BUFFER_BYTES];
+        private int pos;
+
+        Writer(String file) throws IOException {
+            this.out = Files.newOutputStream(Paths.get(file));
+        }
+
+        void write(int b) throws IOException {
+            if (pos == buf.length) flush();
+            buf[pos++] = (byte) b;
+        }
+
+        void writeAscii(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) write(s.charAt(i));
+        }
+
+        void writeInt(long value) throws IOException {
+            if (buf.length - pos < 20) flush();
+            if (value < 0) {
+                buf[pos++] = '-';
+                value = -value;
+            }
+            int start = pos;
+            do {
+                buf[pos++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = pos - 1; i < j; i++, j--) {
+                byte t = buf[i];
+                buf[i] = buf[j];
+                buf[j] = t;
+            }
+        }
+
+        /**
+         * Whole numbers (the usual weights of DIMACS files) are written as integers, other numbers by Double.toString.
+         */
+        void writeDouble(double value) throws IOException {
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                writeInt((long) value);
+            } else {
+                byte[] bytes = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+                for (byte b : bytes) write(b);
+            }
+        }
+
+        private void flush() throws IOException {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package ex1.src;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A compact binary file format for weighted graphs, holding the CSR layout of the graph (see WGraph_CSR)
+ * so it can be written and read as a few packed arrays (all numbers are little endian):
+ * header (32 bytes) - magic ("WGRF"), version, number of vertices (n), number of half edges (m = 2*edges),
+ *                     mode count, flags (FLAG_INFOS if the info strings follow), 8 reserved bytes.
+ * keys    - n ints, sorted.
+ * offsets - n+1 ints, the neighbors of vertex i are between offsets[i] and offsets[i+1].
+ * targets - m ints, the index of the neighbor of each half edge, sorted inside each row.
+ * padding - 0 or 4 bytes, so the weights start at a multiple of 8.
+ * weights - m doubles.
+ * infos   - (only with FLAG_INFOS) for each vertex, the length of its info in UTF-8 bytes (int) followed by the bytes,
+ *           or -1 for a null info.
+ * The file is written and read through a FileChannel with a large direct buffer, and a broken file is reported by an
+ * IOException that says what is wrong with it. The file can also be mapped into memory as is (see map).
+ */
+
+public final class GraphFormat {
+    static final int MAGIC = 0x46524757;// "WGRF" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int FLAG_INFOS = 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private GraphFormat() {
+    }
+
+    /**
+     * Writes the graph to the file (replacing it if it exists).
+     * @param g - the graph to write, a WGraph_CSR is written as is, any other graph is first copied to one
+     * @param file - the file name
+     * @throws IOException if the file could not be written
+     */
+    public static void write(weighted_graph g, String file) throws IOException {
+        WGraph_CSR csr = g instanceof WGraph_CSR ? (WGraph_CSR) g : WGraph_CSR.of(g);
+        int n = csr.nodeSize(), m = n == 0 ? 0 : csr.rowEnd(n - 1);
+        boolean infos = false;
+        for (node_info node : csr.getV()) {
+            if (node.getInfo() == null || !node.getInfo().isEmpty()) {
+                infos = true;
+                break;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(csr.getMC()).putInt(infos ? FLAG_INFOS : 0).putLong(0);
+            for (int i = 0; i < n; i++) {
+                flushIfFull(channel, buf, 4);
+                buf.putInt(csr.keyAt(i));
+            }
+            for (int i = 0; i <= n; i++) {
+                flushIfFull(channel, buf, 4);
+                buf.putInt(i == n ? m : csr.rowStart(i));
+            }
+            for (int pos = 0; pos < m; pos++) {
+                flushIfFull(channel, buf, 4);
+                buf.putInt(csr.target(pos));
+            }
+            flushIfFull(channel, buf, 4);
+            if (padding(n, m) != 0) buf.putInt(0);
+            for (int pos = 0; pos < m; pos++) {
+                flushIfFull(channel, buf, 8);
+                buf.putDouble(csr.weight(pos));
+            }
+            if (infos) {
+                for (node_info node : csr.getV()) {
+                    if (node.getInfo() == null) {
+                        flushIfFull(channel, buf, 4);
+                        buf.putInt(-1);
+                        continue;
+                    }
+                    byte[] bytes = node.getInfo().getBytes(StandardCharsets.UTF_8);
+                    flushIfFull(channel, buf, 4);
+                    buf.putInt(bytes.length);
+                    for (int from = 0; from < bytes.length; ) {
+                        flushIfFull(channel, buf, 1);
+                        int len = Math.min(buf.remaining(), bytes.length - from);
+                        buf.put(bytes, from, len);
+                        from += len;
+                    }
+                }
+            }
+            flush(channel, buf);
+        }
+    }
+
+    /**
+     * @return the number of padding bytes after the targets, so that the weights are aligned to 8 bytes.
+     */
+    static int padding(int n, int m) {
+        long ints = 8 + (long) n + (n + 1) + m;// the header is 8 ints
+        return (int) ((ints & 1) * 4);
+    }
+
+    /**
+     * @return the position of the weights in the file.
+     */
+    static long weightsPosition(int n, int m) {
+        return HEADER_BYTES + 4L * (2L * n + 1 + m) + padding(n, m);
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buf, int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush(channel, buf);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * The arrays of a graph read from a file.
+     */
+    static final class Rows {
+        int[] keys, offsets, targets;
+        double[] weights;
+        String[] infos;// null if the file has no infos
+        int Mc;
+    }
+
+    /**
+     * Checks if the file starts with the magic number of this format.
+     * @param file - the file name
+     * @return true if the file looks like a file of this format, false otherwise (or if it can't be read).
+     */
+    public static boolean isGraphFile(String file) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) return false;
+            }
+            return buf.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the graph in the file into a new (mutable) WGraph_DS (keeping the mode count it was saved with).
+     * @param file - the file name
+     * @return the graph in the file
+     * @throws IOException if the file could not be read or is not a valid graph file
+     */
+    public static WGraph_DS read(String file) throws IOException {
+        return toGraph(readRows(file));
+    }
+
+    /**
+     * @return a new WGraph_DS with the vertices, edges, infos and mode count of the rows.
+     */
+    static WGraph_DS toGraph(Rows rows) {
+        WGraph_DS g = new WGraph_DS(rows.keys, rows.offsets, rows.targets, rows.weights, rows.Mc);
+        if (rows.infos != null) {
+            for (int i = 0; i < rows.keys.length; i++) {
+                g.getNode(rows.keys[i]).setInfo(rows.infos[i]);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Reads the graph in the file into a new WGraph_CSR (keeping the mode count it was saved with).
+     * @param file - the file name
+     * @return the graph in the file
+     * @throws IOException if the file could not be read or is not a valid graph file
+     */
+    public static WGraph_CSR readCSR(String file) throws IOException {
+        Rows rows = readRows(file);
+        return new WGraph_CSR(rows.keys, rows.offsets, rows.targets, rows.weights, rows.infos, rows.Mc);
+    }
+
+    static Rows readRows(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buf.limit(0);
+            fill(channel, buf, HEADER_BYTES, file);
+            int[] header = readHeader(buf, channel.size(), file);
+            int n = header[0], m = header[1];
+            Rows rows = new Rows();
+            rows.Mc = header[2];
+            rows.keys = readInts(channel, buf, n, file);
+            rows.offsets = readInts(channel, buf, n + 1, file);
+            rows.targets = readInts(channel, buf, m, file);
+            if (padding(n, m) != 0) {
+                fill(channel, buf, 4, file);
+                buf.getInt();
+            }
+            rows.weights = new double[m];
+            for (int pos = 0; pos < m; ) {
+                fill(channel, buf, 8, file);
+                int len = Math.min(buf.remaining() / 8, m - pos);
+                buf.asDoubleBuffer().get(rows.weights, pos, len);
+                buf.position(buf.position() + len * 8);
+                pos += len;
+            }
+            if ((header[3] & FLAG_INFOS) != 0) rows.infos = readInfos(channel, buf, n, file);
+            validate(rows, file);
+            return rows;
+        }
+    }
+
+    private static String[] readInfos(FileChannel channel, ByteBuffer buf, int n, String file) throws IOException {
+        String[] infos = new String[n];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < n; i++) {
+            fill(channel, buf, 4, file);
+            int len = buf.getInt();
+            if (len == -1) continue;// a null info
+            if (len < 0) throw new IOException(file + ": corrupt info of vertex " + i);
+            if (len > bytes.length) bytes = new byte[Math.max(len, bytes.length * 2)];
+            for (int from = 0; from < len; ) {
+                fill(channel, buf, 1, file);
+                int chunk = Math.min(buf.remaining(), len - from);
+                buf.get(bytes, from, chunk);
+                from += chunk;
+            }
+            infos[i] = new String(bytes, 0, len, StandardCharsets.UTF_8);
+        }
+        return infos;
+    }
+
+    /**
+     * Maps the file into memory and returns it as a read-only WGraph_CSR, without reading the arrays onto the heap:
+     * the keys, offsets, targets and weights of the graph are views of the mapped file, so the pages are loaded by the
+     * operating system when the graph is used, and JVMs that map the same file share them in the page cache.
+     * Only the info strings (if the file has any) are read onto the heap.
+     * Only the header and the size of the file are checked, the arrays are trusted (a broken file can make the graph throw
+     * an IndexOutOfBoundsException, but can't change anything outside of it). Each array is mapped on its own, so it is
+     * limited to 2GB (about 268 million edges).
+     * The mapping remains valid after the file is closed, until the graph is garbage collected.
+     * @param file - the file name
+     * @return the graph in the file
+     * @throws IOException if the file could not be mapped or does not have a valid header
+     */
+    public static WGraph_CSR map(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) throw new EOFException(file + ": unexpected end of file");
+            }
+            buf.flip();
+            int[] header = readHeader(buf, channel.size(), file);
+            int n = header[0], m = header[1];
+            IntBuffer keys = map(channel, HEADER_BYTES, 4L * n, file).asIntBuffer();
+            IntBuffer offsets = map(channel, HEADER_BYTES + 4L * n, 4L * (n + 1), file).asIntBuffer();
+            IntBuffer targets = map(channel, HEADER_BYTES + 4L * (2L * n + 1), 4L * m, file).asIntBuffer();
+            DoubleBuffer weights = map(channel, weightsPosition(n, m), 8L * m, file).asDoubleBuffer();
+            if (offsets.get(0) != 0 || offsets.get(n) != m) throw new IOException(file + ": corrupt offsets");
+            String[] infos = null;
+            if ((header[3] & FLAG_INFOS) != 0) {
+                channel.position(weightsPosition(n, m) + 8L * m);
+                ByteBuffer infoBuf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                infoBuf.limit(0);
+                infos = readInfos(channel, infoBuf, n, file);
+            }
+            return new WGraph_CSR(keys, offsets, targets, weights, infos, header[2]);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long bytes, String file) throws IOException {
+        if (bytes > Integer.MAX_VALUE) throw new IOException(file + ": the graph is too large to be mapped");
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads and checks the header in the buffer.
+     * @return {n, m, Mc, flags}
+     */
+    static int[] readHeader(ByteBuffer buf, long fileSize, String file) throws IOException {
+        int magic = buf.getInt();
+        if (magic != MAGIC) throw new IOException(file + ": not a graph file (bad magic number)");
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException(file + ": unsupported graph file version " + version + " (expected " + VERSION + ")");
+        int n = buf.getInt(), m = buf.getInt(), Mc = buf.getInt(), flags = buf.getInt();
+        buf.getLong();
+        if (n < 0 || n == Integer.MAX_VALUE || m < 0 || (m & 1) != 0) throw new IOException(file + ": corrupt header (" + n + " vertices, " + m + " half edges)");
+        long size = weightsPosition(n, m) + 8L * m;// nothing is allocated before the file is known to hold the arrays
+        if (fileSize < size) throw new IOException(file + ": truncated, " + fileSize + " bytes instead of at least " + size);
+        return new int[]{n, m, Mc, flags};
+    }
+
+    /**
+     * Checks that the arrays describe a valid CSR graph (sorted rows, every edge stored in both rows with the same weight),
+     * so a broken file can't break the graph built from it.
+     */
+    static void validate(Rows rows, String file) throws IOException {
+        int n = rows.keys.length, m = rows.targets.length;
+        for (int i = 1; i < n; i++) {
+            if (rows.keys[i] <= rows.keys[i - 1]) throw new IOException(file + ": corrupt keys (not sorted at " + i + ")");
+        }
+        if (rows.offsets[0] != 0 || rows.offsets[n] != m) throw new IOException(file + ": corrupt offsets");
+        for (int i = 0; i < n; i++) {
+            if (rows.offsets[i + 1] < rows.offsets[i]) throw new IOException(file + ": corrupt offsets (decreasing at " + i + ")");
+        }
+        // going over the rows in order, the vertices pointing to t come in increasing order, so they must match row t
+        // one after the other (cursor[t] is the next position to match in row t)
+        int[] cursor = Arrays.copyOf(rows.offsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int pos = rows.offsets[i]; pos < rows.offsets[i + 1]; pos++) {
+                int t = rows.targets[pos];
+                if (t < 0 || t >= n || t == i || (pos > rows.offsets[i] && t <= rows.targets[pos - 1])) {
+                    throw new IOException(file + ": corrupt neighbors of vertex " + rows.keys[i]);
+                }
+                int back = cursor[t]++;
+                if (!(rows.weights[pos] >= 0) || back >= rows.offsets[t + 1] || rows.targets[back] != i || rows.weights[back] != rows.weights[pos]) {
+                    throw new IOException(file + ": corrupt edge " + rows.keys[i] + "-" + rows.keys[t]);
+                }
+            }
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, ByteBuffer buf, int count, String file) throws IOException {
+        int[] ans = new int[count];
+        for (int pos = 0; pos < count; ) {
+            fill(channel, buf, 4, file);
+            int len = Math.min(buf.remaining() / 4, count - pos);
+            buf.asIntBuffer().get(ans, pos, len);
+            buf.position(buf.position() + len * 4);
+            pos += len;
+        }
+        return ans;
+    }
+
+    /**
+     * Makes sure the buffer has at least the given number of bytes left, reading more of the file if needed.
+     */
+    private static void fill(FileChannel channel, ByteBuffer buf, int bytes, String file) throws IOException {
+        if (buf.remaining() >= bytes) return;
+        buf.compact();
+        while (buf.position() < bytes) {
+            if (channel.read(buf) < 0) throw new EOFException(file + ": unexpected end of file");
+        }
+        buf.flip();
+    }
+}
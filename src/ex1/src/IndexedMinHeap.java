@@ -0,0 +1,121 @@
+package ex1.src;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the int indices 0..capacity-1 ordered by a double priority, supporting decrease-key.
+ * Each index can be in the heap at most once, its position in the heap array is kept in pos so that
+ * the priority of an index that is already in the heap can be lowered in O(log n) instead of inserting it again.
+ */
+
+class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] pos;
+    private final double[] priority;
+    private int size;
+
+    /**
+     * @param capacity - the indices in the heap will be between 0 and capacity-1
+     */
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int index) {
+        return pos[index] >= 0;
+    }
+
+    /**
+     * The priority of the index at the top of the heap.
+     */
+    double minPriority() {
+        return priority[heap[0]];
+    }
+
+    /**
+     * Inserts the index to the heap, or lowers its priority if it's already in the heap with a higher one.
+     * @return true iff the heap was changed.
+     */
+    boolean offer(int index, double p) {
+        if (pos[index] < 0) {
+            priority[index] = p;
+            heap[size] = index;
+            pos[index] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (p < priority[index]) {
+            priority[index] = p;
+            siftUp(pos[index]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the index with the lowest priority from the heap.
+     * @return the removed index.
+     */
+    int poll() {
+        int min = heap[0];
+        pos[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes all the indices from the heap in O(size).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int index = heap[i];
+        double p = priority[index];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priority[heap[parent]] <= p) break;
+            heap[i] = heap[parent];
+            pos[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = index;
+        pos[index] = i;
+    }
+
+    private void siftDown(int i) {
+        int index = heap[i];
+        double p = priority[index];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && priority[heap[child + 1]] < priority[heap[child]]) child++;
+            if (p <= priority[heap[child]]) break;
+            heap[i] = heap[child];
+            pos[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = index;
+        pos[index] = i;
+    }
+}
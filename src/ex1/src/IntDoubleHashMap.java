@@ -0,0 +1,158 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An open addressing (linear probing) hash map from int keys to double values, used to hold the neighbors of a vertex
+ * without boxing the keys into Integer and the weights into Double.
+ * Removal shifts the following entries of the probe sequence back, so the table never holds "deleted" markers.
+ * The entries can be iterated over without allocating by going over the slots (0..capacity()-1) and
+ * skipping the ones that are not used.
+ */
+
+class IntDoubleHashMap implements Serializable {
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int size, mask;
+
+    IntDoubleHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expected - the number of entries the map should be able to hold without resizing
+     */
+    IntDoubleHashMap(int expected) {
+        allocate(tableSize(expected));
+    }
+
+    private static int tableSize(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expected * 4) capacity <<= 1;// keeping the load factor under 0.75
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new double[capacity];
+        this.used = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot holding the key, or the (negative) -(slot + 1) of the empty slot it should be placed in.
+     */
+    private int find(int key) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return the value mapped to the key, or the given default value if there's no such key.
+     */
+    double get(int key, double defaultValue) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Maps the key to the value, replacing the former value if the key already exists.
+     * @return true iff the key was not in the map before.
+     */
+    boolean put(int key, double value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+            slot = find(key);
+        }
+        slot = -slot - 1;
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true iff the key was in the map.
+     */
+    boolean remove(int key) {
+        int slot = find(key);
+        if (slot < 0) return false;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {// moving back the entries that were placed after the gap
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = -find(oldKeys[i]) - 1;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    double valueAt(int slot) {
+        return values[slot];
+    }
+}
@@ -0,0 +1,165 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An open addressing (linear probing) hash map from int keys to objects, used to find a vertex by its key without
+ * boxing the key into an Integer. It works the same as IntDoubleHashMap, only the values are objects (never null).
+ */
+
+class IntObjectHashMap<V> implements Serializable {
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private Object[] values;
+    private int size, mask;
+
+    IntObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expected - the number of entries the map should be able to hold without resizing
+     */
+    IntObjectHashMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expected * 4) capacity <<= 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the slot holding the key, or the (negative) -(slot + 1) of the empty slot it should be placed in.
+     */
+    private int find(int key) {
+        int slot = IntDoubleHashMap.mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return the value mapped to the key, null if there's no such key.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * Maps the key to the (not null) value, replacing the former value if the key already exists.
+     * @return true iff the key was not in the map before.
+     */
+    boolean put(int key, V value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+            slot = find(key);
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the value that was mapped to the key, null if there was no such key.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) return null;
+        V removed = (V) values[slot];
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {// moving back the entries that were placed after the gap
+            int home = IntDoubleHashMap.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = -find(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * A view of the values in the map, the view reflects later changes to the map.
+     * @return Collection<V>
+     */
+    Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<V>() {
+                    private int slot = advance(0);
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < values.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public V next() {
+                        if (slot >= values.length) throw new NoSuchElementException();
+                        V value = (V) values[slot];
+                        slot = advance(slot + 1);
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package ex1.src;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Landmark preprocessing for the ALT (A*, Landmarks, Triangle inequality) shortest path queries.
+ * For k selected vertices (landmarks) the distances to all of the vertices of a WGraph_CSR snapshot are computed once,
+ * then for every vertex v, target t and landmark L the triangle inequality gives |d(L,t) - d(L,v)| <= d(v,t),
+ * so the largest of these differences is an admissible heuristic for A* towards t.
+ * The landmarks are selected one by one as the vertex farthest from the ones already selected (vertices that can't be reached
+ * from them come first), which spreads them at the "edges" of the graph where the bounds are the tightest.
+ * The distances are stored per vertex (dist[v*k + l]) so computing the heuristic of a vertex reads k adjacent values.
+ */
+
+public class Landmarks {
+    private final WGraph_CSR graph;
+    private final int[] landmarks;
+    private final double[] dist;
+
+    /**
+     * Selects k landmarks and computes their distances to all of the vertices, this runs k Dijkstra searches.
+     * @param graph - the snapshot of the graph
+     * @param k - the number of landmarks (at most the number of vertices)
+     */
+    public Landmarks(WGraph_CSR graph, int k) {
+        int n = graph.nodeSize();
+        k = Math.max(0, Math.min(k, n));
+        this.graph = graph;
+        this.landmarks = new int[k];
+        this.dist = new double[n * k];
+        if (k == 0) return;
+
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        double[] closest = new double[n];// the distance of each vertex to its closest landmark
+        engine.run(0);
+        int next = farthest(engine, closest, true);
+        for (int l = 0; l < k; l++) {
+            landmarks[l] = next;
+            engine.run(next);
+            for (int v = 0; v < n; v++) {
+                dist[v * k + l] = engine.dist(v);
+            }
+            next = farthest(engine, closest, l == 0);
+        }
+    }
+
+    /**
+     * Updating the distance of each vertex to its closest landmark with the last search, and finding the vertex
+     * for which it is the largest. Unreachable vertices have an infinite distance so they are selected first.
+     */
+    private int farthest(DijkstraEngine engine, double[] closest, boolean first) {
+        int ans = 0;
+        for (int v = 0; v < closest.length; v++) {
+            double d = engine.dist(v);
+            if (first || d < closest[v]) closest[v] = d;
+            if (closest[v] > closest[ans]) ans = v;
+        }
+        return ans;
+    }
+
+    /**
+     * The ALT heuristic towards the given target.
+     * @param target - the dense index of the target vertex
+     * @return IntToDoubleFunction from the dense index of a vertex to a lower bound of its distance to target.
+     */
+    public IntToDoubleFunction heuristic(int target) {
+        int k = landmarks.length;
+        double[] toTarget = new double[k];
+        System.arraycopy(dist, target * k, toTarget, 0, k);
+        return v -> {
+            double ans = 0;
+            int base = v * k;
+            for (int l = 0; l < k; l++) {
+                double dv = dist[base + l], dt = toTarget[l];
+                if (dv == Double.POSITIVE_INFINITY && dt == Double.POSITIVE_INFINITY) continue;
+                double bound = Math.abs(dt - dv);// infinite if only one of them is reachable from the landmark
+                if (bound > ans) ans = bound;
+            }
+            return ans;
+        };
+    }
+
+    /**
+     * @return the snapshot these landmarks were computed for.
+     */
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the keys of the selected landmarks.
+     */
+    public int[] getLandmarks() {
+        int[] keys = new int[landmarks.length];
+        for (int l = 0; l < keys.length; l++) {
+            keys[l] = graph.keyAt(landmarks[l]);
+        }
+        return keys;
+    }
+}
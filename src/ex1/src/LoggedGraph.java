@@ -0,0 +1,423 @@
+package ex1.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A weighted graph persisted as a full snapshot (in the format of GraphFormat) plus an append-only log of the changes
+ * made since the snapshot was written, so saving a few changes costs a few bytes instead of rewriting the whole graph.
+ * Every change that changes the graph (seen by its getMC()) - addNode, connect, removeNode, removeEdge - and every
+ * setInfo is appended to the log as a small binary record, the tags are not persisted.
+ * The log starts with a header naming the snapshot it belongs to (the mode count, vertices and half edges the snapshot
+ * was written with). open() reads the snapshot (with the mode count it was written with, so the mode count keeps
+ * growing across sessions and every snapshot is named differently) and replays the log on top of it. A null info is
+ * logged with a length of -1, so it's restored as null.
+ * compact() writes a new snapshot (to a temporary file which then replaces the old one) and empties the log. It runs
+ * automatically once the log holds more records than the graph has vertices and edges. If a crash happens between
+ * replacing the snapshot and emptying the log, the log names the older snapshot, so it's known to be already
+ * included in the new one and is dropped. A record cut by a crash at the end of the log is dropped as well.
+ * The records are buffered: flush() writes them to the file and sync() forces them to the disk.
+ * The changing methods of weighted_graph can't throw an IOException, so a failure to write the log is thrown as an
+ * UncheckedIOException.
+ */
+
+public class LoggedGraph implements weighted_graph, Closeable {
+    static final int MAGIC = 0x474C4757;// "WGLG" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int MIN_COMPACT_RECORDS = 1024;
+    private static final byte ADD_NODE = 1, CONNECT = 2, REMOVE_NODE = 3, REMOVE_EDGE = 4, SET_INFO = 5;
+
+    private final weighted_graph graph;
+    private final Path snapshotFile;
+    private final FileChannel log;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long records;
+    private boolean autoCompact = true;
+
+    private LoggedGraph(weighted_graph graph, Path snapshotFile, FileChannel log, long records) {
+        this.graph = graph;
+        this.snapshotFile = snapshotFile;
+        this.log = log;
+        this.records = records;
+    }
+
+    /**
+     * Opens a logged graph: reads the snapshot (an empty graph if the file doesn't exist) into a WGraph_DS and replays
+     * the log on it (the log is created if it doesn't exist).
+     * @param snapshotFile - the file of the full snapshot
+     * @param logFile - the file of the log
+     * @return the logged graph, appending its changes to the log
+     * @throws IOException if one of the files could not be read, or is not a valid snapshot/log
+     */
+    public static LoggedGraph open(String snapshotFile, String logFile) throws IOException {
+        Path snapshot = Paths.get(snapshotFile);
+        WGraph_DS graph;
+        int baseMc = 0, n = 0, m = 0;
+        if (Files.exists(snapshot)) {
+            GraphFormat.Rows rows = GraphFormat.readRows(snapshotFile);
+            graph = GraphFormat.toGraph(rows);
+            baseMc = rows.Mc;
+            n = rows.keys.length;
+            m = rows.targets.length;
+        } else {
+            graph = new WGraph_DS();
+        }
+        FileChannel log = FileChannel.open(Paths.get(logFile), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (log.read(header) < 0) break;
+            }
+            header.flip();
+            long records = 0;
+            if (header.remaining() >= 8 && header.getInt(0) != MAGIC) throw new IOException(logFile + ": not a graph log");
+            if (header.remaining() >= 8 && header.getInt(4) != VERSION) {
+                throw new IOException(logFile + ": unsupported graph log version " + header.getInt(4) + " (expected " + VERSION + ")");
+            }
+            if (header.remaining() == HEADER_BYTES && header.getInt(8) == baseMc && header.getInt(12) == n && header.getInt(16) == m) {
+                records = replay(log, graph, logFile);
+            } else {// a new log, or one that is already included in the snapshot
+                resetLog(log, baseMc, n, m);
+            }
+            return new LoggedGraph(graph, snapshot, log, records);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    private static void resetLog(FileChannel log, int baseMc, int n, int m) throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(baseMc).putInt(n).putInt(m).putInt(0).flip();
+        log.position(0);
+        while (header.hasRemaining()) log.write(header);
+    }
+
+    /**
+     * Applies the records of the log (from its current position) to the graph, and cuts an incomplete last record.
+     * @return the number of records applied.
+     */
+    private static long replay(FileChannel log, weighted_graph g, String logFile) throws IOException {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        in.limit(0);
+        long position = HEADER_BYTES, records = 0;
+        byte[] bytes = new byte[64];
+        while (true) {
+            if (!fill(log, in, 1)) break;
+            byte op = in.get(in.position());
+            int size = op == ADD_NODE || op == REMOVE_NODE ? 5 : op == CONNECT ? 17 : op == REMOVE_EDGE ? 9 : op == SET_INFO ? 9 : -1;
+            if (size < 0) throw new IOException(logFile + ": corrupt record at byte " + position);
+            if (!fill(log, in, size)) break;
+            if (op == SET_INFO) {
+                int len = in.getInt(in.position() + 5);
+                if (len < -1 || len > BUFFER_BYTES - 9) throw new IOException(logFile + ": corrupt record at byte " + position);
+                size += Math.max(len, 0);
+                if (!fill(log, in, size)) break;
+            }
+            in.get();
+            switch (op) {
+                case ADD_NODE:
+                    g.addNode(in.getInt());
+                    break;
+                case CONNECT:
+                    g.connect(in.getInt(), in.getInt(), in.getDouble());
+                    break;
+                case REMOVE_NODE:
+                    g.removeNode(in.getInt());
+                    break;
+                case REMOVE_EDGE:
+                    g.removeEdge(in.getInt(), in.getInt());
+                    break;
+                default:
+                    int key = in.getInt(), len = in.getInt();
+                    String info = null;// a length of -1 stands for a null info
+                    if (len >= 0) {
+                        if (len > bytes.length) bytes = new byte[len];
+                        in.get(bytes, 0, len);
+                        info = new String(bytes, 0, len, StandardCharsets.UTF_8);
+                    }
+                    node_info n = g.getNode(key);
+                    if (n != null) n.setInfo(info);
+            }
+            position += size;
+            records++;
+        }
+        log.truncate(position);// a record cut in the middle by a crash
+        log.position(position);
+        return records;
+    }
+
+    /**
+     * Makes sure the buffer has at least the given number of bytes left, reading more of the log if needed.
+     * @return false if the log ends before that.
+     */
+    private static boolean fill(FileChannel log, ByteBuffer in, int bytes) throws IOException {
+        if (in.remaining() >= bytes) return true;
+        in.compact();
+        while (in.position() < bytes) {
+            if (log.read(in) < 0) {
+                in.flip();
+                return false;
+            }
+        }
+        in.flip();
+        return true;
+    }
+
+    /**
+     * Whether to compact automatically once the log holds more records than the graph has vertices and edges
+     * (and at least 1024 records). true by default.
+     */
+    public void setAutoCompact(boolean autoCompact) {
+        this.autoCompact = autoCompact;
+    }
+
+    /**
+     * @return the number of records in the log (since the last compaction).
+     */
+    public long logSize() {
+        return records;
+    }
+
+    private void append(byte op, int a, int b, double w, byte[] info) {
+        int size = op == ADD_NODE || op == REMOVE_NODE ? 5 : op == CONNECT ? 17 : 9;
+        if (info != null) size += info.length;
+        try {
+            if (buf.remaining() < size) flush();
+            buf.put(op).putInt(a);
+            if (op == CONNECT) buf.putInt(b).putDouble(w);
+            else if (op == REMOVE_EDGE) buf.putInt(b);
+            else if (op == SET_INFO && info == null) buf.putInt(-1);
+            else if (op == SET_INFO) buf.putInt(info.length).put(info);
+            records++;
+            if (autoCompact && records > Math.max(MIN_COMPACT_RECORDS, (long) graph.nodeSize() + graph.edgeSize())) compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the buffered records to the log.
+     */
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) log.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Writes the buffered records to the log and forces them to the disk.
+     */
+    public void sync() throws IOException {
+        flush();
+        log.force(false);
+    }
+
+    /**
+     * Writes a new full snapshot of the graph and empties the log.
+     * @throws IOException if the snapshot or the log could not be written
+     */
+    public void compact() throws IOException {
+        flush();
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        GraphFormat.write(graph, tmp.toString());
+        try {
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        resetLog(log, graph.getMC(), graph.nodeSize(), 2 * graph.edgeSize());
+        log.force(false);
+        records = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * @return the graph the changes are applied to (changing it directly bypasses the log).
+     */
+    public weighted_graph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        node_info n = graph.getNode(key);
+        return n == null ? null : new LoggedNode(n);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return graph.hasEdge(node1, node2);
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        return graph.getEdge(node1, node2);
+    }
+
+    @Override
+    public void addNode(int key) {
+        int mc = graph.getMC();
+        graph.addNode(key);
+        if (graph.getMC() != mc) append(ADD_NODE, key, 0, 0, null);
+    }
+
+    @Override
+    public void connect(int node1, int node2, double w) {
+        int mc = graph.getMC();
+        graph.connect(node1, node2, w);
+        if (graph.getMC() != mc) append(CONNECT, node1, node2, w, null);
+    }
+
+    @Override
+    public Collection<node_info> getV() {
+        return new LoggedNodes(graph.getV());
+    }
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        return new LoggedNodes(graph.getV(node_id));
+    }
+
+    @Override
+    public node_info removeNode(int key) {
+        int mc = graph.getMC();
+        node_info n = graph.removeNode(key);
+        if (graph.getMC() != mc) append(REMOVE_NODE, key, 0, 0, null);
+        return n;
+    }
+
+    @Override
+    public void removeEdge(int node1, int node2) {
+        int mc = graph.getMC();
+        graph.removeEdge(node1, node2);
+        if (graph.getMC() != mc) append(REMOVE_EDGE, node1, node2, 0, null);
+    }
+
+    @Override
+    public int nodeSize() {
+        return graph.nodeSize();
+    }
+
+    @Override
+    public int edgeSize() {
+        return graph.edgeSize();
+    }
+
+    @Override
+    public int getMC() {
+        return graph.getMC();
+    }
+
+    /**
+     * A view of vertices of the graph, as LoggedNode.
+     */
+
+    private class LoggedNodes extends AbstractCollection<node_info> {
+        private final Collection<node_info> nodes;
+
+        LoggedNodes(Collection<node_info> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            Iterator<node_info> it = nodes.iterator();
+            return new Iterator<node_info>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public node_info next() {
+                    return new LoggedNode(it.next());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+    }//LoggedNodes
+
+    /**
+     * A vertex of the graph whose setInfo is logged.
+     */
+
+    private class LoggedNode implements node_info {
+        private final node_info node;
+
+        LoggedNode(node_info node) {
+            this.node = node;
+        }
+
+        @Override
+        public int getKey() {
+            return node.getKey();
+        }
+
+        @Override
+        public String getInfo() {
+            return node.getInfo();
+        }
+
+        @Override
+        public void setInfo(String s) {
+            byte[] bytes = s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+            if (bytes != null && bytes.length > BUFFER_BYTES - 9) throw new IllegalArgumentException("the info is too long to be logged");
+            node.setInfo(s);
+            append(SET_INFO, node.getKey(), 0, 0, bytes);
+        }
+
+        @Override
+        public double getTag() {
+            return node.getTag();
+        }
+
+        @Override
+        public void setTag(double t) {
+            node.setTag(t);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LoggedNode)) return false;
+            return node.equals(((LoggedNode) o).node);
+        }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode();
+        }
+    }//private class LoggedNode implementing node_info
+
+}//LoggedGraph
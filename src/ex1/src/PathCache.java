@@ -0,0 +1,169 @@
+package ex1.src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of the results of WGraph_Algo.shortestPathDist and shortestPath, by the (src, dest) pair.
+ * The entries are kept in a LinkedHashMap in access order, so the least recently used entry is evicted once the cache
+ * holds more than its capacity. An entry holds the distance, and the path if shortestPath was called for the pair.
+ * The results are valid only for the state of the graph they were computed on: every entry belongs to the mode count
+ * of the graph, and the whole cache is dropped as soon as a query comes with another mode count (or another graph
+ * is initialized). Counting the hits, misses, evictions and invalidations shows whether the cache pays off.
+ * The methods are synchronized, since the queries of WGraph_Algo may run in many threads.
+ * WGraph_Algo.enableCache(capacity) turns it on.
+ */
+
+public class PathCache {
+    /**
+     * Returned by path for a pair whose path is not in the cache (null is a valid path - there's no path).
+     */
+    static final List<node_info> MISS = Collections.emptyList();
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private int mc;
+    private long hits, misses, evictions, invalidations;
+
+    private static final class Entry {
+        private final double dist;
+        private List<node_info> path;// unmodifiable, null if there's no path
+        private boolean hasPath;// false if only the distance is known
+
+        Entry(double dist) {
+            this.dist = dist;
+        }
+    }
+
+    /**
+     * @param capacity - the largest number of (src, dest) pairs to keep (> 0)
+     */
+    PathCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("the capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= PathCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    private static long pair(int src, int dest) {
+        return ((long) src << 32) | (dest & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Drops all of the entries if they belong to another mode count.
+     */
+    private void validate(int mc) {
+        if (mc == this.mc) return;
+        if (!entries.isEmpty()) invalidations++;
+        entries.clear();
+        this.mc = mc;
+    }
+
+    /**
+     * @return the cached distance between the pair, NaN if it's not in the cache.
+     */
+    synchronized double dist(int mc, int src, int dest) {
+        validate(mc);
+        Entry e = entries.get(pair(src, dest));
+        if (e == null) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        return e.dist;
+    }
+
+    /**
+     * @return a copy of the cached path between the pair (null if there's no path), MISS if it's not in the cache.
+     */
+    synchronized List<node_info> path(int mc, int src, int dest) {
+        validate(mc);
+        Entry e = entries.get(pair(src, dest));
+        if (e == null || !e.hasPath) {
+            misses++;
+            return MISS;
+        }
+        hits++;
+        return e.path == null ? null : new ArrayList<>(e.path);
+    }
+
+    synchronized void putDist(int mc, int src, int dest, double dist) {
+        validate(mc);
+        entries.putIfAbsent(pair(src, dest), new Entry(dist));
+    }
+
+    synchronized void putPath(int mc, int src, int dest, double dist, List<node_info> path) {
+        validate(mc);
+        Entry e = new Entry(dist);
+        e.path = path == null ? null : Collections.unmodifiableList(new ArrayList<>(path));
+        e.hasPath = true;
+        entries.put(pair(src, dest), e);
+    }
+
+    /**
+     * Drops all of the entries (the counters are kept).
+     */
+    public synchronized void clear() {
+        if (!entries.isEmpty()) invalidations++;
+        entries.clear();
+    }
+
+    /**
+     * @return the largest number of (src, dest) pairs kept.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of (src, dest) pairs in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of queries answered from the cache.
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of queries that were not in the cache (and were computed).
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries evicted to keep the cache within its capacity.
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of times the whole cache was dropped because the graph changed.
+     */
+    public synchronized long invalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * @return the part of the queries answered from the cache, 0 if there were no queries.
+     */
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,267 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent map from int keys to objects, implemented as a hash array mapped trie (HAMT): every node of the trie
+ * covers 5 bits of the (mixed) key and holds only its used children, found by the popcount of its bitmap.
+ * A map is never changed by the operations of another map, put and remove return a new map which shares all the
+ * unchanged nodes with the old one (only the path to the changed key is copied).
+ * To avoid copying that path on every change, the nodes created with an edit token may be changed in place by later
+ * operations with the same token. Taking a snapshot of a map is then just starting to use a new token, so the nodes
+ * seen by the snapshot are never changed again.
+ * The keys are mixed by IntDoubleHashMap.mix, which is a bijection, so two keys always differ within the 32 bits (7 levels).
+ */
+
+final class PersistentIntMap<V> implements Serializable {
+    private static final Node EMPTY_NODE = new Node(null, 0, new Object[0]);
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(EMPTY_NODE, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    private static final class Node implements Serializable {
+        private final transient Object edit;// not kept by serialization, so loaded nodes are copied on change
+        private int bitmap;
+        private Object[] slots;// each slot is either a Node or an Entry
+
+        Node(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        /**
+         * @return this node if it may be changed in place with the given token, otherwise a copy of it that may.
+         */
+        Node editable(Object edit) {
+            if (edit != null && this.edit == edit) return this;
+            return new Node(edit, bitmap, slots.clone());
+        }
+    }
+
+    private static final class Entry implements Serializable {
+        private final int key;
+        private final Object value;
+
+        Entry(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value mapped to the key, null if none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int h = IntDoubleHashMap.mix(key);
+        Node node = root;
+        for (int shift = 0; ; shift += 5) {
+            int bit = 1 << ((h >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) return null;
+            Object o = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (o instanceof Entry) {
+                Entry e = (Entry) o;
+                return e.key == key ? (V) e.value : null;
+            }
+            node = (Node) o;
+        }
+    }
+
+    /**
+     * Maps the key to the (not null) value.
+     * @param edit - the edit token of the caller, nodes created with it may be changed in place
+     * @return the map with the new mapping (this map is not changed unless its nodes belong to the token).
+     */
+    PersistentIntMap<V> put(Object edit, int key, V value) {
+        boolean[] added = new boolean[1];
+        Node r = put(root, edit, IntDoubleHashMap.mix(key), 0, key, value, added);
+        if (r == root && !added[0]) return this;
+        return new PersistentIntMap<>(r, added[0] ? size + 1 : size);
+    }
+
+    private static Node put(Node node, Object edit, int h, int shift, int key, Object value, boolean[] added) {
+        int bit = 1 << ((h >>> shift) & 31);
+        int idx = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, idx);
+            slots[idx] = new Entry(key, value);
+            System.arraycopy(node.slots, idx, slots, idx + 1, node.slots.length - idx);
+            if (edit != null && node.edit == edit) {
+                node.slots = slots;
+                node.bitmap |= bit;
+                return node;
+            }
+            return new Node(edit, node.bitmap | bit, slots);
+        }
+        Object o = node.slots[idx];
+        Object replacement;
+        if (o instanceof Entry) {
+            Entry e = (Entry) o;
+            if (e.key == key) {
+                if (e.value == value) return node;
+                replacement = new Entry(key, value);
+            } else {// two keys in the same slot, both go one level down
+                added[0] = true;
+                replacement = split(edit, e, IntDoubleHashMap.mix(e.key), new Entry(key, value), h, shift + 5);
+            }
+        } else {
+            Node child = (Node) o;
+            Node changed = put(child, edit, h, shift + 5, key, value, added);
+            if (changed == child) return node;
+            replacement = changed;
+        }
+        Node n = node.editable(edit);
+        n.slots[idx] = replacement;
+        return n;
+    }
+
+    private static Node split(Object edit, Entry e1, int h1, Entry e2, int h2, int shift) {
+        int b1 = (h1 >>> shift) & 31, b2 = (h2 >>> shift) & 31;
+        if (b1 == b2) return new Node(edit, 1 << b1, new Object[]{split(edit, e1, h1, e2, h2, shift + 5)});
+        return new Node(edit, (1 << b1) | (1 << b2), b1 < b2 ? new Object[]{e1, e2} : new Object[]{e2, e1});
+    }
+
+    /**
+     * Removes the mapping of the key.
+     * @param edit - the edit token of the caller, nodes created with it may be changed in place
+     * @return the map without the key (this map is not changed unless its nodes belong to the token).
+     */
+    PersistentIntMap<V> remove(Object edit, int key) {
+        boolean[] removed = new boolean[1];
+        Node r = remove(root, edit, IntDoubleHashMap.mix(key), 0, key, removed);
+        if (!removed[0]) return this;
+        return new PersistentIntMap<>(r == null ? EMPTY_NODE : r, size - 1);
+    }
+
+    /**
+     * @return the node without the key, null if the node became empty.
+     */
+    private static Node remove(Node node, Object edit, int h, int shift, int key, boolean[] removed) {
+        int bit = 1 << ((h >>> shift) & 31);
+        if ((node.bitmap & bit) == 0) return node;
+        int idx = Integer.bitCount(node.bitmap & (bit - 1));
+        Object o = node.slots[idx];
+        Object replacement;
+        if (o instanceof Entry) {
+            if (((Entry) o).key != key) return node;
+            removed[0] = true;
+            replacement = null;
+        } else {
+            Node child = (Node) o;
+            Node changed = remove(child, edit, h, shift + 5, key, removed);
+            if (changed == child) return node;
+            if (changed != null && changed.slots.length == 1 && changed.slots[0] instanceof Entry) {
+                replacement = changed.slots[0];// a single entry moves up in place of its node
+            } else {
+                replacement = changed;
+            }
+        }
+        if (replacement != null) {
+            Node n = node.editable(edit);
+            n.slots[idx] = replacement;
+            return n;
+        }
+        if (node.slots.length == 1) return null;
+        Object[] slots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, slots, 0, idx);
+        System.arraycopy(node.slots, idx + 1, slots, idx, slots.length - idx);
+        if (edit != null && node.edit == edit) {
+            node.slots = slots;
+            node.bitmap &= ~bit;
+            return node;
+        }
+        return new Node(edit, node.bitmap & ~bit, slots);
+    }
+
+    /**
+     * An iterator over the keys of the map (in no specific order), the map must not be changed in place while iterating.
+     */
+    KeyIterator keys() {
+        return new KeyIterator(root);
+    }
+
+    /**
+     * An iterator over the values of the map, the map must not be changed in place while iterating.
+     */
+    Iterator<V> values() {
+        KeyIterator keys = new KeyIterator(root);
+        return new Iterator<V>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                return (V) keys.nextEntry().value;
+            }
+        };
+    }
+
+    static final class KeyIterator {
+        private final Node[] nodes = new Node[8];
+        private final int[] positions = new int[8];
+        private int depth;
+        private Entry next;
+
+        KeyIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object o = node.slots[positions[depth]++];
+                if (o instanceof Entry) {
+                    next = (Entry) o;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) o;
+                positions[depth] = 0;
+            }
+        }
+
+        boolean hasNext() {
+            return next != null;
+        }
+
+        int next() {
+            return nextEntry().key;
+        }
+
+        private Entry nextEntry() {
+            if (next == null) throw new NoSuchElementException();
+            Entry e = next;
+            advance();
+            return e;
+        }
+    }
+}
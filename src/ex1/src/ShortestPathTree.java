@@ -0,0 +1,120 @@
+package ex1.src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The shortest paths from one source to all of the vertices of a WGraph_CSR snapshot, found by a single Dijkstra
+ * search and kept as a tree: the distance of each vertex and its predecessor on its shortest path (by dense index).
+ * Any number of destinations can then be queried from it: distTo in O(log(V)) (finding the index of the key) and
+ * pathTo in O(log(V) + the length of the path), instead of a search per destination.
+ * The tree is immutable, so it can be shared between threads, and stays valid for the snapshot after the graph changes.
+ * WGraph_Algo.shortestPathTree(src) builds it for its graph.
+ */
+
+public class ShortestPathTree {
+    private final WGraph_CSR graph;
+    private final weighted_graph nodes;// the graph whose node_info the paths hold
+    private final int source;
+    private final double[] dist;
+    private final int[] prev;
+
+    /**
+     * Runs Dijkstra from the source over the whole graph.
+     * @param graph - the snapshot of the graph
+     * @param source - the key of the source vertex (if it's not in the graph no vertex is reached)
+     */
+    public ShortestPathTree(WGraph_CSR graph, int source) {
+        this(graph, graph, source, graph.indexOf(source) < 0 ? null : new DijkstraEngine(graph));
+    }
+
+    /**
+     * Copies the tree from an engine (which is then free for another search).
+     * @param nodes - the graph to take the node_info of the paths from (the snapshot if a vertex is not there)
+     * @param engine - the engine to run the search with, null if the source is not in the graph
+     */
+    ShortestPathTree(WGraph_CSR graph, weighted_graph nodes, int source, DijkstraEngine engine) {
+        int n = graph.nodeSize();
+        this.graph = graph;
+        this.nodes = nodes;
+        this.source = source;
+        this.dist = new double[n];
+        this.prev = new int[n];
+        int src = graph.indexOf(source);
+        for (int v = 0; v < n; v++) {
+            dist[v] = -1;
+            prev[v] = -1;
+        }
+        if (src < 0 || engine == null) return;
+        engine.run(src);
+        for (int v = 0; v < n; v++) {
+            if (!engine.isSettled(v)) continue;
+            dist[v] = engine.dist(v);
+            prev[v] = engine.prev(v);
+        }
+    }
+
+    /**
+     * @return the snapshot this tree was computed for.
+     */
+    public WGraph_CSR getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the key of the source vertex.
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @return true iff there's a path from the source to the vertex.
+     */
+    public boolean hasPathTo(int key) {
+        int i = graph.indexOf(key);
+        return i >= 0 && dist[i] >= 0;
+    }
+
+    /**
+     * @return the shortest distance from the source to the vertex, -1 if it's not in the graph or can't be reached.
+     */
+    public double distTo(int key) {
+        int i = graph.indexOf(key);
+        return i < 0 ? -1 : dist[i];
+    }
+
+    /**
+     * Returns the shortest path from the source to the vertex, like WGraph_Algo.shortestPath: the list is empty when the
+     * vertex is the source itself.
+     * @return List<node_info> of the vertices on the path (from the source), null if there's no path.
+     */
+    public List<node_info> pathTo(int key) {
+        int i = graph.indexOf(key);
+        if (i < 0 || dist[i] < 0) return null;
+        List<node_info> path = new ArrayList<>();
+        if (key == source) return path;
+        for (; i != -1; i = prev[i]) {
+            node_info n = nodes.getNode(graph.keyAt(i));
+            path.add(n != null ? n : graph.getNode(graph.keyAt(i)));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @return the distance of each vertex by its dense index (see WGraph_CSR.keyAt), -1 for unreachable vertices.
+     */
+    public double[] distances() {
+        return dist.clone();
+    }
+
+    /**
+     * @return the index of the vertex before each vertex on its shortest path by its dense index, -1 for the source
+     * and for unreachable vertices.
+     */
+    public int[] predecessors() {
+        return prev.clone();
+    }
+}
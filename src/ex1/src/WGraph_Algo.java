@@ -2,24 +2,31 @@ package ex1.src;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 
 /**
  * This class implements the weighted_graph_algorithms interface for Undirected (positive) Weighted Graph Theory algorithm.
  * The WGraph_ALgo class implements the methods for the WGraph_Ds using the Dijkstra algorithm in order to
  * find the shortest path between two vertices inside a graph.
  * The Save and Load methods are used to save a graph to a sort of file type and to load a graph back reconstructing it back.
- * In order to use the Dijkstra algorithm the nodeDistComp determines which path is "shorter" to continue.
+ * The shortest path queries run the DijkstraEngine on a cached CSR snapshot (WGraph_CSR) of the graph.
+ * The algorithms keep their state in their own workspaces and never in the tags of the graph, so one graph can be
+ * queried by many threads at the same time (as long as it isn't changed meanwhile).
  */
 
 public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
+    private static final int PARALLEL_THRESHOLD = 1 << 16;// the number of vertices from which isConnected runs in parallel
 
     private weighted_graph weighted_graph;
-    private nodeDistComp comparator;
+    private transient volatile Prepared prepared;
+    private transient volatile Landmarks landmarks;
+    private transient volatile PathCache cache;
 
 
     public WGraph_Algo() {
         this.weighted_graph = new WGraph_DS();
-        comparator = new nodeDistComp();
     }
 
     /**
@@ -31,7 +38,29 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
     @Override
     public void init(weighted_graph g) {
         this.weighted_graph = g;
-        comparator = new nodeDistComp();
+        this.prepared = null;
+        this.landmarks = null;
+        PathCache c = this.cache;
+        if (c != null) c.clear();
+    }
+
+    /**
+     * Turning on a cache of the results of shortestPathDist and shortestPath (see PathCache), for workloads where a few
+     * (src, dest) pairs are queried over and over. The cache keeps the least recently used pairs up to its capacity and
+     * is dropped whenever the graph changes (its getMC() advances).
+     * @param capacity - the largest number of pairs to keep, 0 to turn the cache off
+     */
+
+    public void enableCache(int capacity) {
+        this.cache = capacity == 0 ? null : new PathCache(capacity);
+    }
+
+    /**
+     * @return the cache of the shortest path queries (with its counters), null if it's off.
+     */
+
+    public PathCache getCache() {
+        return this.cache;
     }
 
     @Override
@@ -77,146 +106,457 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
     /**
      * This method returns true if and only if there's a path between all of the vertices
      * inside the graph using the BFS algorithm to explore the graph.
+     * The BFS runs on the CSR snapshot of the graph with its own queue and visited bitset (no tags of the graph are used),
+     * so concurrent calls don't interfere with each other.
+     * If the graph is a ConnectivityTracker, its tracked components answer without a BFS, and large graphs are checked
+     * with the parallel union-find of Components when there's more than one core.
      * @return true if the graph is fully connected.
      */
     @Override
     public boolean isConnected() {
-        resetTag();
-        int visited = 1;
-        if (weighted_graph.getV().size() == 1) return true;
-
-        Queue<node_info> queue = new LinkedList<>();
-        node_info arbitraryNode = getArbitraryNode();
-        if (arbitraryNode == null) return true;
-        queue.add(arbitraryNode);
-        arbitraryNode.setTag(visited);
-
-        if (weighted_graph.getV(arbitraryNode.getKey()).size() == 0) return false;
-        while (!queue.isEmpty()) {
-            node_info curr = queue.poll();
-
-            for (node_info node : weighted_graph.getV(curr.getKey())) {
-                if (node.getTag() != visited) {
-                    node.setTag(visited);
-                    queue.add(node);
+        if (this.weighted_graph instanceof ConnectivityTracker) return ((ConnectivityTracker) this.weighted_graph).isConnected();
+        WGraph_CSR g = snapshot();
+        int n = g.nodeSize();
+        if (n <= 1) return true;
+        if (n >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) return new Components(g).isConnected();
+
+        int[] queue = new int[n];
+        long[] visited = new long[(n + 63) >>> 6];
+        int head = 0, tail = 0;
+        queue[tail++] = 0;// an arbitrary vertex to begin the BFS from
+        visited[0] = 1;
+        while (head < tail) {
+            int curr = queue[head++];
+            for (int pos = g.rowStart(curr); pos < g.rowEnd(curr); pos++) {
+                int v = g.target(pos);
+                if ((visited[v >>> 6] & (1L << v)) == 0) {
+                    visited[v >>> 6] |= 1L << v;
+                    queue[tail++] = v;
                 }
             }
-
         }
-        for (node_info n : weighted_graph.getV()) {
-            if (n.getTag() != visited) return false;
+        return tail == n;
+    }
+
+    /**
+     * Computes the connected components of the graph (in parallel, see Components).
+     * @return Components of the current state of the graph, with the component ID of each vertex and their sizes.
+     */
+
+    public Components components() {
+        return new Components(snapshot());
+    }
+
+    /**
+     * Runs one Dijkstra search from the source over the whole graph and returns its shortest path tree, from which the
+     * distance and the path to any number of destinations are read without searching again (see ShortestPathTree).
+     * The paths hold the node_info of this graph, like shortestPath.
+     * @param src - the key of the source vertex
+     * @return ShortestPathTree from the source, null if the source is not in the graph.
+     */
+
+    public ShortestPathTree shortestPathTree(int src) {
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        if (g.indexOf(src) < 0) return null;
+        DijkstraEngine engine = p.dijkstra.acquire();
+        try {
+            return new ShortestPathTree(g, this.weighted_graph, src, engine);
+        } finally {
+            p.dijkstra.release(engine);
         }
+    }
+
+    /**
+     * Computes the hop distances (the number of edges, ignoring the weights) from the source to all of the vertices
+     * with a parallel BFS (see BreadthFirstSearch).
+     * @param src - the key of the source vertex
+     * @return BreadthFirstSearch holding the hop distances, null if the source is not in the graph.
+     */
 
-        return true;
+    public BreadthFirstSearch hops(int src) {
+        WGraph_CSR g = snapshot();
+        if (g.indexOf(src) < 0) return null;
+        return new BreadthFirstSearch(g, src);
     }
 
     /**
-     * Used to retain a vertex in the graph to begin the BFS algorithm from.
-     * @return an arbitrary node_info from the graph, null if there was no node added to the graph.
+     * Computes the shortest distances from the source to all of the vertices with the parallel delta-stepping
+     * algorithm (see DeltaStepping).
+     * @param src - the key of the source vertex
+     * @param delta - the width of the buckets, 0 for DeltaStepping.defaultDelta of the graph
+     * @return DeltaStepping holding the distances, null if the source is not in the graph.
      */
 
-    private node_info getArbitraryNode() {
-        for (node_info n : this.weighted_graph.getV()) {
-            return n;
+    public DeltaStepping deltaStepping(int src, double delta) {
+        WGraph_CSR g = snapshot();
+        if (g.indexOf(src) < 0) return null;
+        return new DeltaStepping(g, src, delta == 0 ? DeltaStepping.defaultDelta(g) : delta);
+    }
+
+    /**
+     * A snapshot of the graph together with the pools of the search workspaces over it,
+     * replaced as a whole when the graph changes.
+     */
+
+    private static class Prepared {
+        private final WGraph_CSR graph;
+        private final WorkspacePool<DijkstraEngine> dijkstra;
+        private final WorkspacePool<BidirectionalDijkstra> bidirectional;
+
+        Prepared(WGraph_CSR graph) {
+            this.graph = graph;
+            this.dijkstra = new WorkspacePool<>(() -> new DijkstraEngine(graph));
+            this.bidirectional = new WorkspacePool<>(() -> new BidirectionalDijkstra(graph));
         }
-        return null;
     }
 
     /**
-     * Setting the tags to the maximum value of Double both to be used in the BFS algorithm and in the Dijkstra
-     * algorithm to find the shortest path.
+     * Returns the CSR snapshot of the graph (and the workspace pools) for the shortest path engines. The snapshot is cached
+     * and rebuilt only when the graph's mode count changes, so a series of queries on an unchanged graph pays for it once.
+     * Any number of threads may query at the same time, each query takes its own workspace from the pools.
+     * @return Prepared for the current state of the graph.
      */
 
-    private void resetTag() {
-        for (node_info n : this.weighted_graph.getV()) {
-            n.setTag(Double.MAX_EXPONENT);
+    private Prepared prepared() {
+        Prepared p = this.prepared;
+        if (p != null && p.graph.getMC() == this.weighted_graph.getMC()) return p;
+        synchronized (this) {
+            p = this.prepared;
+            if (p == null || p.graph.getMC() != this.weighted_graph.getMC()) {
+                WGraph_CSR g = this.weighted_graph instanceof WGraph_CSR ? (WGraph_CSR) this.weighted_graph : WGraph_CSR.of(this.weighted_graph);
+                p = new Prepared(g);
+                this.prepared = p;
+            }
+            return p;
         }
     }
 
+    /**
+     * @return WGraph_CSR of the current state of the graph.
+     */
+
+    WGraph_CSR snapshot() {
+        return prepared().graph;
+    }
+
     /**
      * Returns the shortest "distance" between two vertices in the graph by the sum of the edges between them.
-     * the distance of a vertex to himself is 0.
+     * the distance of a vertex to himself is 0. Only the distance is computed (no path is built) and the search
+     * stops as soon as the dest vertex is settled.
      * @param src - start node
      * @param dest - end (target) node
      * @return - the sum of the edges between the nodes and -1 if there's no path.
      */
 
-
     @Override
     public double shortestPathDist(int src, int dest) {
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return -1;
         if (src == dest) return 0;
-        if (weighted_graph.getNode(src) == null || weighted_graph.getNode(dest) == null) return -1;
-        List<node_info> path = shortestPath(src, dest);
-        double ans = path.get(path.size() - 1).getTag();
-
-        return ans;
+        PathCache c = this.cache;
+        if (c != null) {
+            double cached = c.dist(g.getMC(), src, dest);
+            if (!Double.isNaN(cached)) return cached;
+        }
+        DijkstraEngine engine = p.dijkstra.acquire();
+        try {
+            engine.run(srcIndex, destIndex, landmarkHeuristic(g, destIndex));
+            double ans = engine.dist(destIndex);
+            if (ans == Double.POSITIVE_INFINITY) ans = -1;
+            if (c != null) c.putDist(g.getMC(), src, dest, ans);
+            return ans;
+        } finally {
+            p.dijkstra.release(engine);
+        }
     }
 
     /**
-     * This method explore the graph using the Dijkstra algorithm to find the shortest distance. First all of the
-     * vertices tags are reset to be "infinity" and the distance from the src vertex to himself to be 0.
-     * Then the unvisited neighbors of the src vertex are added to the priority queue (which are then rearranged in the queue to
-     * determine which one is the closest in order to continue in it's path first), for each vertex if the known distance (it's tag) is bigger than the
-     * distance calculated from the src vertex to him ,the tag is set to be that distance. At that point previousN list is updated in order to build the shortest path.
-     * after that the vertex is added to the visited list so that we won't go that path again.
+     * This method explore the graph using the Dijkstra algorithm (see DijkstraEngine) to find the shortest path.
+     * The search runs on a CSR snapshot of the graph where each vertex has a dense index, so the distances, the previous
+     * vertex on the path and the visited marks are kept in arrays, and the queue is an indexed heap which lowers the priority of
+     * a vertex instead of adding it again. The search stops once the dest vertex is settled (its distance can't get shorter)
+     * and the path is then built backwards from the dest vertex using the previous array.
      * @param src - start node
      * @param dest - end (target) node
-     * @return List<node_info> representing the path / empty list if the src==dest / null if there's no node_info in the graph.
+     * @return List<node_info> representing the path / empty list if the src==dest / null if there's no such node_info or no path.
      */
 
     @Override
     public List<node_info> shortestPath(int src, int dest) {
-        resetTag();
-        PriorityQueue<node_info> queue = new PriorityQueue<>(comparator);
-        List<node_info> visitedNodes = new ArrayList<>();
-        HashMap<Integer, node_info> previousN = new HashMap<>();
-        if (src == dest) return visitedNodes;
-        if (weighted_graph.getNode(src) == null || weighted_graph.getNode(dest) == null) return null;
-        weighted_graph.getNode(src).setTag(0);
-        queue.add(weighted_graph.getNode(src));
-        while (!(queue.isEmpty())) {
-            node_info srcN = queue.poll();
-            for (node_info neighbor : weighted_graph.getV(srcN.getKey())) {
-                if (!(visitedNodes.contains(neighbor))) {
-                    double edgeW = weighted_graph.getEdge(srcN.getKey(), neighbor.getKey());
-                    if (neighbor.getTag() > edgeW + srcN.getTag()) {
-                        neighbor.setTag(edgeW + srcN.getTag());
-                        previousN.put(neighbor.getKey(), srcN);
-                        queue.add(neighbor);
-                    }// to update the current "distance" from the src vertex.
-
-                }// in order to check if the vertex had been visited already.
-            }// Visiting the current vertex neighbors
-            visitedNodes.add(srcN);// after adding all of his neighbors we mark it as visited.
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return null;
+        if (src == dest) return new ArrayList<>();
+        PathCache c = this.cache;
+        if (c != null) {
+            List<node_info> cached = c.path(g.getMC(), src, dest);
+            if (cached != PathCache.MISS) return cached;
+        }
+        DijkstraEngine engine = p.dijkstra.acquire();
+        try {
+            engine.run(srcIndex, destIndex, landmarkHeuristic(g, destIndex));
+            List<node_info> path = getPath(engine, destIndex);
+            if (c != null) {
+                double ans = engine.dist(destIndex);
+                c.putPath(g.getMC(), src, dest, ans == Double.POSITIVE_INFINITY ? -1 : ans, path);
+            }
+            return path;
+        } finally {
+            p.dijkstra.release(engine);
         }
-        return getPath(previousN, src, dest);
-
     }// shortestPath
 
     /**
-     * This method returns the path by the related node_info that was previous to the dest vertex.
-     * @param previousN - the HashMap containing the information of the previous node leading to the dest.
-     * @param src - the src node
-     * @param dest - the dest node
-     * @return The List<node_info> containing the vertices in the path.
+     * Selecting k landmarks and computing their distances to all of the vertices (see Landmarks), after which
+     * shortestPathDist and shortestPath run as A* with the landmarks lower bounds instead of a plain Dijkstra.
+     * This pays off when many queries run on the same graph: the tables are dropped as soon as the graph changes
+     * (its getMC() advances) or another graph is initialized, and the queries go back to Dijkstra until this is called again.
+     * This method runs k Dijkstra searches and keeps k*|V| distances.
+     * @param k - the number of landmarks
      */
 
-    private List<node_info> getPath(HashMap<Integer, node_info> previousN, int src, int dest) {
-        List<node_info> path = new ArrayList<>();
-        node_info prev = weighted_graph.getNode(dest);
-        path.add(prev);
-        while (!(path.contains(previousN.get(src)))) {
-            path.add(previousN.get(prev.getKey()));
-            prev = previousN.get(prev.getKey());
-            if (prev.getKey() == src) break;
+    public void preprocessLandmarks(int k) {
+        this.landmarks = new Landmarks(snapshot(), k);
+    }
+
+    /**
+     * The ALT heuristic towards dest if the landmarks were computed for the current state of the graph.
+     * @param g - the current snapshot of the graph
+     * @param dest - the index of the dest vertex
+     * @return IntToDoubleFunction over dense indices, null if there are no valid landmarks.
+     */
+
+    private IntToDoubleFunction landmarkHeuristic(WGraph_CSR g, int dest) {
+        Landmarks l = this.landmarks;
+        if (l == null) return null;
+        if (l.getGraph() != g) {// the graph has changed since the preprocessing
+            this.landmarks = null;
+            return null;
+        }
+        return l.heuristic(dest);
+    }
+
+    /**
+     * The vertex of the graph in the given index of the snapshot, or the vertex of the snapshot itself
+     * if it was removed from the graph (by another thread) since the snapshot was taken.
+     */
+
+    private node_info nodeOf(WGraph_CSR g, int index) {
+        node_info n = weighted_graph.getNode(g.keyAt(index));
+        return n != null ? n : g.getNode(g.keyAt(index));
+    }
+
+    /**
+     * This method returns the path by following the previous vertex of each vertex from dest back to the source.
+     * @param engine - the engine that ran the search
+     * @param dest - the index of the dest node
+     * @return The List<node_info> containing the vertices in the path, null if dest wasn't reached.
+     */
 
+    private List<node_info> getPath(DijkstraEngine engine, int dest) {
+        if (engine.dist(dest) == Double.POSITIVE_INFINITY) return null;
+        WGraph_CSR g = engine.getGraph();
+        List<node_info> path = new ArrayList<>();
+        for (int i = dest; i != -1; i = engine.prev(i)) {
+            path.add(nodeOf(g, i));
         }
         Collections.reverse(path);
         return path;
     }
 
     /**
-     * Saves this weighted (undirected) graph to the given file name.
+     * Computes the shortest distances from every one of the sources to every one of the targets.
+     * One search runs per source (stopping once all of the targets are settled), the searches run in parallel on the
+     * common fork-join pool, each search with its own DijkstraEngine over the same snapshot so no tags of the graph are used.
+     * @param sources - the keys of the source vertices
+     * @param targets - the keys of the target vertices
+     * @return double[sources.length][targets.length] where [i][j] is the distance from sources[i] to targets[j],
+     * -1 if there's no path (or one of the vertices is not in the graph).
+     */
+
+    public double[][] distanceMatrix(int[] sources, int[] targets) {
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int[] targetIndex = new int[targets.length];
+        for (int j = 0; j < targets.length; j++) {
+            targetIndex[j] = g.indexOf(targets[j]);
+        }
+        double[][] ans = new double[sources.length][targets.length];
+        IntStream.range(0, sources.length).parallel().forEach(i -> {
+            int src = g.indexOf(sources[i]);
+            if (src < 0) {
+                Arrays.fill(ans[i], -1);
+                return;
+            }
+            DijkstraEngine engine = p.dijkstra.acquire();
+            try {
+                engine.run(src, targetIndex);
+                for (int j = 0; j < targets.length; j++) {
+                    int t = targetIndex[j];
+                    double d = t < 0 ? Double.POSITIVE_INFINITY : engine.dist(t);
+                    ans[i][j] = d == Double.POSITIVE_INFINITY ? -1 : d;
+                }
+            } finally {
+                p.dijkstra.release(engine);
+            }
+        });
+        return ans;
+    }
+
+    /**
+     * Returns the shortest "distance" between two vertices using the A* algorithm: the search is guided towards dest by
+     * the heuristic, a lower bound of the distance from a vertex (by its key) to dest, and so explores far less vertices
+     * when the heuristic is good (e.g. the straight line distance between coordinates). With a null heuristic this is shortestPathDist.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @param heuristic - vertex key -> lower bound of its distance to dest, must never be more than the real distance.
+     * @return - the sum of the edges between the nodes and -1 if there's no path.
+     */
+
+    public double shortestPathDist(int src, int dest, IntToDoubleFunction heuristic) {
+        if (heuristic == null) return shortestPathDist(src, dest);
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return -1;
+        if (src == dest) return 0;
+        DijkstraEngine engine = p.dijkstra.acquire();
+        try {
+            engine.run(srcIndex, destIndex, i -> heuristic.applyAsDouble(g.keyAt(i)));
+            double ans = engine.dist(destIndex);
+            return ans == Double.POSITIVE_INFINITY ? -1 : ans;
+        } finally {
+            p.dijkstra.release(engine);
+        }
+    }
+
+    /**
+     * Returns the shortest path between two vertices using the A* algorithm (see shortestPathDist(int, int, IntToDoubleFunction)).
+     * With a null heuristic this is shortestPath.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @param heuristic - vertex key -> lower bound of its distance to dest, must never be more than the real distance.
+     * @return List<node_info> representing the path / empty list if the src==dest / null if there's no such node_info or no path.
+     */
+
+    public List<node_info> shortestPath(int src, int dest, IntToDoubleFunction heuristic) {
+        if (heuristic == null) return shortestPath(src, dest);
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return null;
+        if (src == dest) return new ArrayList<>();
+        DijkstraEngine engine = p.dijkstra.acquire();
+        try {
+            engine.run(srcIndex, destIndex, i -> heuristic.applyAsDouble(g.keyAt(i)));
+            return getPath(engine, destIndex);
+        } finally {
+            p.dijkstra.release(engine);
+        }
+    }
+
+    /**
+     * A heuristic for the A* methods based on coordinates kept in the info of the vertices as comma separated
+     * numbers (e.g. "32.1,34.8"): the straight line (Euclidean) distance of a vertex to dest.
+     * It is admissible only if the weight of every edge is at least the distance between the coordinates of its ends.
+     * A vertex without coordinates gets 0 (which is always a lower bound).
+     * @param dest - the target of the queries this heuristic is used for
+     * @return IntToDoubleFunction from a vertex key to its straight line distance from dest.
+     */
+
+    public IntToDoubleFunction coordinateHeuristic(int dest) {
+        node_info target = weighted_graph.getNode(dest);
+        double[] to = target == null ? null : coordinates(target.getInfo());
+        if (to == null) return key -> 0;
+        return key -> {
+            node_info n = weighted_graph.getNode(key);
+            double[] from = n == null ? null : coordinates(n.getInfo());
+            if (from == null || from.length != to.length) return 0;
+            double sum = 0;
+            for (int i = 0; i < to.length; i++) {
+                sum += (from[i] - to[i]) * (from[i] - to[i]);
+            }
+            return Math.sqrt(sum);
+        };
+    }
+
+    /**
+     * Parsing the comma separated coordinates in the info of a vertex.
+     * @return double[] of the coordinates, null if the info is not a list of numbers.
+     */
+
+    private static double[] coordinates(String info) {
+        if (info == null || info.isEmpty()) return null;
+        String[] parts = info.split(",");
+        double[] ans = new double[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                ans[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return ans;
+    }
+
+    /**
+     * Returns the shortest "distance" between two vertices like shortestPathDist, using a bidirectional Dijkstra
+     * search (see BidirectionalDijkstra) which meets in the middle and usually settles far less vertices.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @return - the sum of the edges between the nodes and -1 if there's no path.
+     */
+
+    public double shortestPathDistBidirectional(int src, int dest) {
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return -1;
+        BidirectionalDijkstra search = p.bidirectional.acquire();
+        try {
+            double ans = search.run(srcIndex, destIndex);
+            return ans == Double.POSITIVE_INFINITY ? -1 : ans;
+        } finally {
+            p.bidirectional.release(search);
+        }
+    }
+
+    /**
+     * Returns the shortest path between two vertices like shortestPath, using a bidirectional Dijkstra search.
+     * @param src - start node
+     * @param dest - end (target) node
+     * @return List<node_info> representing the path / empty list if the src==dest / null if there's no such node_info or no path.
+     */
+
+    public List<node_info> shortestPathBidirectional(int src, int dest) {
+        Prepared p = prepared();
+        WGraph_CSR g = p.graph;
+        int srcIndex = g.indexOf(src), destIndex = g.indexOf(dest);
+        if (srcIndex < 0 || destIndex < 0) return null;
+        if (src == dest) return new ArrayList<>();
+        int[] path;
+        BidirectionalDijkstra search = p.bidirectional.acquire();
+        try {
+            search.run(srcIndex, destIndex);
+            path = search.path();
+        } finally {
+            p.bidirectional.release(search);
+        }
+        if (path == null) return null;
+        List<node_info> ans = new ArrayList<>(path.length);
+        for (int i : path) {
+            ans.add(nodeOf(g, i));
+        }
+        return ans;
+    }
+
+    /**
+     * Saves this weighted (undirected) graph to the given file name, in the compact binary format of GraphFormat
+     * (a header with the counts followed by the packed CSR arrays of the graph).
      *
      * @param file - the file name (may include a relative path).
      * @return true - iff the file was successfully saved.
@@ -224,14 +564,29 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
 
     @Override
     public boolean save(String file) {
-        ObjectOutputStream oos;
         try {
-            FileOutputStream fout = new FileOutputStream(file);
-            oos = new ObjectOutputStream(fout);
-            oos.writeObject(this.getGraph());
+            GraphFormat.write(this.getGraph(), file);
             return true;
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Saves this weighted (undirected) graph to the given file name, in the format of CompressedGraphFormat (smaller
+     * than the one of save, but it can not be memory mapped). load reads both formats.
+     *
+     * @param file - the file name (may include a relative path).
+     * @param step - the step to round the weights to, or 0 to keep them exact
+     * @return true - iff the file was successfully saved.
+     */
+
+    public boolean saveCompressed(String file, double step) {
+        try {
+            if (step == 0) CompressedGraphFormat.write(this.getGraph(), file);
+            else CompressedGraphFormat.write(this.getGraph(), file, step);
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -242,6 +597,9 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
      * loading a graph to this graph algorithm. If the file was successfully loaded - the underlying graph
      * of this class will be changed (to the loaded one), in case the
      * graph was not loaded the original graph should remain "as is".
+     * Files in the format of GraphFormat or of CompressedGraphFormat are loaded into a WGraph_DS, other files are read
+     * by Java serialization
+     * (the format save used before), so older files can still be loaded.
      * @param file - file name
      * @return true - iff the graph was successfully loaded.
      */
@@ -249,34 +607,43 @@ public class WGraph_Algo implements weighted_graph_algorithms, Serializable {
     @Override
     public boolean load(String file) {
         try {
-            FileInputStream streamIn = new FileInputStream(file);
-            ObjectInputStream objectinputstream = new ObjectInputStream(streamIn);
-            weighted_graph createdGraph = (WGraph_DS) objectinputstream.readObject();
-
+            weighted_graph createdGraph;
+            if (GraphFormat.isGraphFile(file)) {
+                createdGraph = GraphFormat.read(file);
+            } else if (CompressedGraphFormat.isCompressedFile(file)) {
+                createdGraph = CompressedGraphFormat.read(file);
+            } else {
+                try (ObjectInputStream objectinputstream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    Object o = objectinputstream.readObject();
+                    if (!(o instanceof weighted_graph)) throw new IOException(file + ": does not hold a weighted_graph");
+                    createdGraph = (weighted_graph) o;
+                }
+            }
             this.init(createdGraph);
-
-            streamIn.close();
-            objectinputstream.close();
-
-        } catch (Exception e) {
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
             e.printStackTrace();
         }
-
         return false;
     }
 
+    /**
+     * Loading a graph saved by save without copying it onto the heap: the file is memory mapped (see GraphFormat.map)
+     * and the graph of this class becomes a read-only WGraph_CSR backed by the mapped file, which all of the queries use
+     * as is. In case the graph was not loaded the original graph remains "as is".
+     * @param file - file name
+     * @return true - iff the graph was successfully mapped.
+     */
 
-}//WGraph_Algo
-
-class nodeDistComp implements Comparator<node_info> {
-
-    @Override
-    public int compare(node_info o1, node_info o2) {
-        return (int) (o1.getTag() - o2.getTag());
+    public boolean loadMapped(String file) {
+        try {
+            this.init(GraphFormat.map(file));
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
     }
-}
-
-
-
 
 
+}//WGraph_Algo
@@ -0,0 +1,182 @@
+package ex1.src;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Builds a weighted graph from many edges at once, much faster than calling addNode and connect for each of them.
+ * The builder only appends the vertices and edges to primitive arrays (sized up front from the expected counts).
+ * build() and buildCSR() then:
+ * 1. sort the distinct keys of the vertices, giving each vertex a dense index.
+ * 2. place both directions of every edge in the row of its source with two stable counting sorts (by target, then by
+ *    source), so each row is sorted by target and the copies of an edge stay in the order they were added.
+ * 3. keep only the last copy of every edge in one pass over the rows (the last weight wins, like connect).
+ * This takes O(V*log(V) + E*log(V)) time, and the WGraph_DS is then filled with HashMaps of the exact size.
+ * Like connect, edges from a vertex to itself and edges with a negative weight are ignored. The endpoints of an edge
+ * are added as vertices if they were not added before.
+ */
+
+public class WGraph_Builder {
+    private int[] nodes;
+    private int nodeCount;
+    private int[] from, to;
+    private double[] weights;
+    private int edgeCount;
+
+    public WGraph_Builder() {
+        this(16, 16);
+    }
+
+    /**
+     * @param expectedNodes - the number of vertices that will be added (without the endpoints of the edges)
+     * @param expectedEdges - the number of edges that will be added (including duplicates)
+     */
+    public WGraph_Builder(int expectedNodes, int expectedEdges) {
+        this.nodes = new int[Math.max(expectedNodes, 1)];
+        this.from = new int[Math.max(expectedEdges, 1)];
+        this.to = new int[from.length];
+        this.weights = new double[from.length];
+    }
+
+    public WGraph_Builder addNode(int key) {
+        if (nodeCount == nodes.length) nodes = Arrays.copyOf(nodes, nodeCount * 2);
+        nodes[nodeCount++] = key;
+        return this;
+    }
+
+    public WGraph_Builder addNodes(int[] keys) {
+        if (nodeCount + keys.length > nodes.length) nodes = Arrays.copyOf(nodes, Math.max(nodeCount + keys.length, nodes.length * 2));
+        System.arraycopy(keys, 0, nodes, nodeCount, keys.length);
+        nodeCount += keys.length;
+        return this;
+    }
+
+    public WGraph_Builder addEdge(int node1, int node2, double w) {
+        if (node1 == node2 || w < 0) return this;
+        if (edgeCount == from.length) grow(edgeCount + 1);
+        from[edgeCount] = node1;
+        to[edgeCount] = node2;
+        weights[edgeCount++] = w;
+        return this;
+    }
+
+    /**
+     * Adds the edges node1[i]-node2[i] with the weight w[i], for every i.
+     */
+    public WGraph_Builder addEdges(int[] node1, int[] node2, double[] w) {
+        if (node1.length != node2.length || node1.length != w.length) {
+            throw new IllegalArgumentException("the edge arrays must have the same length");
+        }
+        if (edgeCount + node1.length > from.length) grow(edgeCount + node1.length);
+        for (int i = 0; i < node1.length; i++) {
+            addEdge(node1[i], node2[i], w[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge for every element of the stream (which is consumed), the endpoints and the weight are taken from it
+     * by the given functions.
+     */
+    public <T> WGraph_Builder addEdges(Stream<T> edges, ToIntFunction<? super T> node1, ToIntFunction<? super T> node2, ToDoubleFunction<? super T> w) {
+        edges.forEachOrdered(e -> addEdge(node1.applyAsInt(e), node2.applyAsInt(e), w.applyAsDouble(e)));
+        return this;
+    }
+
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, from.length * 2);
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+    }
+
+    /**
+     * @return a new WGraph_DS with all the vertices and edges added so far.
+     */
+    public WGraph_DS build() {
+        Rows rows = rows();
+        return new WGraph_DS(rows.keys, rows.offsets, rows.targets, rows.weights, rows.keys.length + rows.targets.length / 2);
+    }
+
+    /**
+     * @return a new WGraph_CSR with all the vertices and edges added so far, its mode count is the number of
+     * vertices and edges (as if they were added to a new graph one by one).
+     */
+    public WGraph_CSR buildCSR() {
+        Rows rows = rows();
+        return new WGraph_CSR(rows.keys, rows.offsets, rows.targets, rows.weights, null, rows.keys.length + rows.targets.length / 2);
+    }
+
+    private static class Rows {
+        private int[] keys, offsets, targets;
+        private double[] weights;
+    }
+
+    private Rows rows() {
+        Rows rows = new Rows();
+        int[] keys = Arrays.copyOf(nodes, nodeCount + 2 * edgeCount);
+        System.arraycopy(from, 0, keys, nodeCount, edgeCount);
+        System.arraycopy(to, 0, keys, nodeCount + edgeCount, edgeCount);
+        Arrays.sort(keys);
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) keys[n++] = keys[i];
+        }
+        rows.keys = Arrays.copyOf(keys, n);
+
+        // both directions of every edge as half edges (source, target, weight) in the order they were added
+        int m = 2 * edgeCount;
+        int[] src = new int[m], dst = new int[m];
+        for (int i = 0; i < edgeCount; i++) {
+            int a = Arrays.binarySearch(rows.keys, from[i]), b = Arrays.binarySearch(rows.keys, to[i]);
+            src[2 * i] = a;
+            dst[2 * i] = b;
+            src[2 * i + 1] = b;
+            dst[2 * i + 1] = a;
+        }
+        int[] byTarget = countingSort(dst, null, n);
+        int[] order = countingSort(src, byTarget, n);
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] w = new double[m];
+        int pos = 0, h = 0;
+        for (int i = 0; i < n; i++) {
+            for (; h < m && src[order[h]] == i; h++) {
+                int e = order[h];
+                if (pos > offsets[i] && targets[pos - 1] == dst[e]) {
+                    w[pos - 1] = weights[e >>> 1];// a later copy of the same edge
+                } else {
+                    targets[pos] = dst[e];
+                    w[pos++] = weights[e >>> 1];
+                }
+            }
+            offsets[i + 1] = pos;
+        }
+        rows.offsets = offsets;
+        rows.targets = Arrays.copyOf(targets, pos);
+        rows.weights = Arrays.copyOf(w, pos);
+        return rows;
+    }
+
+    /**
+     * A stable counting sort of the half edges by the given index.
+     * @param index - the dense index to sort by, of each half edge
+     * @param order - the order of the half edges to keep among equal indices, null for their natural order
+     * @param n - the number of distinct indices
+     * @return the half edges sorted by the index.
+     */
+    private static int[] countingSort(int[] index, int[] order, int n) {
+        int[] start = new int[n + 1];
+        for (int i : index) start[i + 1]++;
+        for (int i = 0; i < n; i++) start[i + 1] += start[i];
+        int[] sorted = new int[index.length];
+        for (int k = 0; k < index.length; k++) {
+            int e = order == null ? k : order[k];
+            sorted[start[index[e]]++] = e;
+        }
+        return sorted;
+    }
+}
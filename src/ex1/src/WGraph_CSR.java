@@ -0,0 +1,452 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents an immutable snapshot of an undirected weighted graph stored in compressed sparse row (CSR) form.
+ * The vertices are kept sorted by their key and are addressed internally by a dense index (0..n-1), so that the whole
+ * graph structure is held in a few primitive arrays instead of a HashMap per vertex:
+ * keys - the key of each vertex (sorted), used to translate a key to its index with a binary search.
+ * offsets - the neighbors of vertex i are stored in targets/weights between offsets[i] and offsets[i+1].
+ * targets - the index of the neighbor at the other end of each (directed half of an) edge, sorted inside each row.
+ * weights - the weight of each edge, parallel to targets.
+ * The structure (vertices, edges and weights) cannot be changed, every mutating method throws an UnsupportedOperationException.
+ * The info and tag of the vertices may still be changed so that algorithms that mark vertices can run on the snapshot.
+ * The arrays are held as IntBuffer/DoubleBuffer, wrapping heap arrays for a snapshot of a graph or the regions of a
+ * memory mapped file for a graph loaded by GraphFormat.map, so both are used by the algorithms in the same way.
+ */
+
+public class WGraph_CSR implements weighted_graph, Serializable {
+    private final transient IntBuffer keys;
+    private final transient IntBuffer offsets;
+    private final transient IntBuffer targets;
+    private final transient DoubleBuffer weights;
+    private final transient int[] offsetArray, targetArray;// the arrays of the heap buffers, null for a mapped file
+    private final transient double[] weightArray;// (the hot accessors read them directly, which is a bit faster)
+    private transient String[] infos;// null while all the infos are ""
+    private transient double[] tags;// null while all the tags are 0
+    private final int size, edges, Mc;
+
+    WGraph_CSR(int[] keys, int[] offsets, int[] targets, double[] weights, String[] infos, int Mc) {
+        this(IntBuffer.wrap(keys), IntBuffer.wrap(offsets), IntBuffer.wrap(targets), DoubleBuffer.wrap(weights), infos, Mc);
+    }
+
+    /**
+     * @param infos - the info of each vertex, or null if they are all ""
+     */
+    WGraph_CSR(IntBuffer keys, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, String[] infos, int Mc) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.offsetArray = offsets.hasArray() && offsets.arrayOffset() == 0 ? offsets.array() : null;
+        this.targetArray = targets.hasArray() && targets.arrayOffset() == 0 ? targets.array() : null;
+        this.weightArray = weights.hasArray() && weights.arrayOffset() == 0 ? weights.array() : null;
+        this.infos = infos;
+        this.size = keys.limit();
+        this.edges = targets.limit() / 2;
+        this.Mc = Mc;
+    }
+
+    /**
+     * Builds a CSR snapshot of the given graph, the returned graph shares nothing with the given one
+     * (except the info strings which are immutable) and is not affected by later changes to it.
+     * If the graph is changed by other threads meanwhile (see WGraph_Concurrent), each row holds the neighbors
+     * of the vertex as they were when it was visited, and only the edges found in the rows of both of their ends are
+     * kept (a WGraph_Concurrent is always checked, since a change may still be half done when the copy ends, before
+     * it counts in the mode count). The snapshot gets the mode count the graph had before the copy, so a change racing
+     * with it makes the snapshot look outdated and the caches keyed by getMC() (WGraph_Algo, Landmarks, PathCache)
+     * take a new one.
+     * This method runs in O(V*log(V) + E*log(E)).
+     * @param g - the graph to take a snapshot of
+     * @return the WGraph_CSR snapshot of the graph.
+     */
+
+    public static WGraph_CSR of(weighted_graph g) {
+        int mc = g.getMC();// read before the copy, so a change racing with it makes the snapshot look older, not newer
+        int[] keys = new int[g.nodeSize()];
+        int n = 0;
+        for (node_info node : g.getV()) {
+            if (n == keys.length) keys = Arrays.copyOf(keys, n * 2 + 1);
+            keys[n++] = node.getKey();
+        }
+        keys = Arrays.copyOf(keys, n);
+        Arrays.sort(keys);
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[2 * g.edgeSize()];
+        double[] weights = new double[targets.length];
+        String[] infos = new String[n];
+        int[] row = new int[16];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            node_info node = g.getNode(keys[i]);
+            infos[i] = node == null ? "" : node.getInfo();
+            int degree = 0;
+            for (node_info neighbor : g.getV(keys[i])) {
+                int index = Arrays.binarySearch(keys, neighbor.getKey());
+                if (index < 0) continue;// a vertex added after the keys were collected
+                if (degree == row.length) row = Arrays.copyOf(row, degree * 2);
+                row[degree++] = index;
+            }
+            Arrays.sort(row, 0, degree);// sorted rows allow a binary search in hasEdge/getEdge
+            if (pos + degree > targets.length) {
+                targets = Arrays.copyOf(targets, Math.max(pos + degree, targets.length * 2));
+                weights = Arrays.copyOf(weights, targets.length);
+            }
+            for (int k = 0; k < degree; k++) {
+                double w = g.getEdge(keys[i], keys[row[k]]);
+                if (w < 0) continue;// the edge was removed meanwhile
+                targets[pos] = row[k];
+                weights[pos++] = w;
+            }
+            offsets[i + 1] = pos;
+        }
+        if (pos != targets.length) {
+            targets = Arrays.copyOf(targets, pos);
+            weights = Arrays.copyOf(weights, pos);
+        }
+        if (g instanceof WGraph_Concurrent || g.getMC() != mc) {// an edge may be in one of its rows only
+            pos = symmetrize(offsets, targets, weights);
+            targets = Arrays.copyOf(targets, pos);
+            weights = Arrays.copyOf(weights, pos);
+        }
+        return new WGraph_CSR(keys, offsets, targets, weights, infos, mc);
+    }
+
+    /**
+     * Keeps only the edges found in the rows of both of their ends (with the weight from the row of the lower end),
+     * compacting the rows in place.
+     * @return the number of half edges kept.
+     */
+    private static int symmetrize(int[] offsets, int[] targets, double[] weights) {
+        int n = offsets.length - 1;
+        for (int i = 0; i < n; i++) {
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                int j = targets[p];
+                if (j <= i) continue;
+                int q = Arrays.binarySearch(targets, offsets[j], offsets[j + 1], i);
+                if (q < 0) targets[p] = -1;// not in the row of j
+                else weights[q] = weights[p];
+            }
+        }
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            int start = offsets[i], end = offsets[i + 1];
+            offsets[i] = pos;
+            for (int p = start; p < end; p++) {
+                int j = targets[p];
+                if (j < 0) continue;
+                if (j < i && Arrays.binarySearch(targets, offsets[j], offsets[j + 1], i) < 0) continue;// not in the row of j
+                targets[pos] = j;
+                weights[pos++] = weights[p];
+            }
+        }
+        offsets[n] = pos;
+        return pos;
+    }
+
+    /**
+     * The buffers can't be serialized, so a WGraph_CSR is serialized as a copy of its arrays (see SerialForm).
+     */
+    private Object writeReplace() {
+        SerialForm form = new SerialForm();
+        form.keys = new int[size];
+        keys.duplicate().position(0).get(form.keys);
+        form.offsets = new int[size + 1];
+        offsets.duplicate().position(0).get(form.offsets);
+        form.targets = new int[2 * edges];
+        targets.duplicate().position(0).get(form.targets);
+        form.weights = new double[2 * edges];
+        weights.duplicate().position(0).get(form.weights);
+        form.infos = infos;
+        form.Mc = Mc;
+        return form;
+    }
+
+    private static class SerialForm implements Serializable {
+        private int[] keys, offsets, targets;
+        private double[] weights;
+        private String[] infos;
+        private int Mc;
+
+        private Object readResolve() {
+            return new WGraph_CSR(keys, offsets, targets, weights, infos, Mc);
+        }
+    }
+
+    /**
+     * Returns the dense index (0..n-1) of the vertex with the given key.
+     * @param key - the node_id
+     * @return the index of the vertex, a negative number if there's no such vertex.
+     */
+
+    public int indexOf(int key) {
+        return search(keys, 0, size, key);
+    }
+
+    /**
+     * A binary search of the key between two positions of a sorted buffer.
+     * @return the position of the key, -1 if it's not there.
+     */
+    private static int search(IntBuffer buf, int from, int to, int key) {
+        int low = from, high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int k = buf.get(mid);
+            if (k < key) low = mid + 1;
+            else if (k > key) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key of the vertex in the given index.
+     * @param index - the dense index of the vertex
+     * @return the key of the vertex
+     */
+
+    public int keyAt(int index) {
+        return keys.get(index);
+    }
+
+    /**
+     * The position (inside the targets/weights arrays) of the first neighbor of the vertex in the given index.
+     * @param index - the dense index of the vertex
+     * @return the start of the row of the vertex
+     */
+
+    public int rowStart(int index) {
+        return offsetArray != null ? offsetArray[index] : offsets.get(index);
+    }
+
+    /**
+     * The position (inside the targets/weights arrays) right after the last neighbor of the vertex in the given index.
+     * @param index - the dense index of the vertex
+     * @return the end (exclusive) of the row of the vertex
+     */
+
+    public int rowEnd(int index) {
+        return offsetArray != null ? offsetArray[index + 1] : offsets.get(index + 1);
+    }
+
+    /**
+     * The index of the neighbor in the given position of the targets array.
+     * @param pos - a position between rowStart and rowEnd of some vertex
+     * @return the dense index of the neighbor
+     */
+
+    public int target(int pos) {
+        return targetArray != null ? targetArray[pos] : targets.get(pos);
+    }
+
+    /**
+     * The weight of the edge in the given position of the weights array.
+     * @param pos - a position between rowStart and rowEnd of some vertex
+     * @return the weight of the edge
+     */
+
+    public double weight(int pos) {
+        return weightArray != null ? weightArray[pos] : weights.get(pos);
+    }
+
+    /**
+     * Searching the row of index1 for the position of the edge going to index2.
+     * @return the position of the edge, -1 if there's no such edge.
+     */
+
+    private int edgePos(int index1, int index2) {
+        return search(targets, offsets.get(index1), offsets.get(index1 + 1), index2);
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        int index = indexOf(key);
+        if (index < 0) return null;
+        return new NodeView(index);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return getEdge(node1, node2) != -1;
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        int index1 = indexOf(node1), index2 = indexOf(node2);
+        if (index1 < 0 || index2 < 0 || index1 == index2) return -1;
+        int pos = edgePos(index1, index2);
+        if (pos < 0) return -1;
+        return weights.get(pos);
+    }
+
+    @Override
+    public void addNode(int key) {
+        throw new UnsupportedOperationException("WGraph_CSR is immutable");
+    }
+
+    @Override
+    public void connect(int node1, int node2, double w) {
+        throw new UnsupportedOperationException("WGraph_CSR is immutable");
+    }
+
+    /**
+     * Returns a view of all the vertices in the graph (ordered by their key), the node_info objects are created
+     * while iterating so the snapshot does not need to hold an object per vertex.
+     * @return Collection<node_info>
+     */
+
+    @Override
+    public Collection<node_info> getV() {
+        return new Row(0, size, false);
+    }
+
+    /**
+     * Returns a view of the neighbors of the vertex, or an empty collection if there's no such vertex.
+     * @param node_id
+     * @return Collection<node_info>
+     */
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        int index = indexOf(node_id);
+        if (index < 0) return new Row(0, 0, true);
+        return new Row(offsets.get(index), offsets.get(index + 1), true);
+    }
+
+    @Override
+    public node_info removeNode(int key) {
+        throw new UnsupportedOperationException("WGraph_CSR is immutable");
+    }
+
+    @Override
+    public void removeEdge(int node1, int node2) {
+        throw new UnsupportedOperationException("WGraph_CSR is immutable");
+    }
+
+    @Override
+    public int nodeSize() {
+        return this.size;
+    }
+
+    @Override
+    public int edgeSize() {
+        return this.edges;
+    }
+
+    /**
+     * The snapshot cannot change, so this is the mode count of the source graph at the time the snapshot was taken.
+     * @return
+     */
+
+    @Override
+    public int getMC() {
+        return this.Mc;
+    }
+
+    /**
+     * A collection of the vertices between two positions, either of the vertices array itself
+     * or (if indirect) of the targets array.
+     */
+
+    private class Row extends AbstractCollection<node_info> {
+        private final int from, to;
+        private final boolean indirect;
+
+        Row(int from, int to, boolean indirect) {
+            this.from = from;
+            this.to = to;
+            this.indirect = indirect;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int pos = from;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < to;
+                }
+
+                @Override
+                public node_info next() {
+                    if (pos >= to) throw new NoSuchElementException();
+                    int index = indirect ? targets.get(pos) : pos;
+                    pos++;
+                    return new NodeView(index);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }//Row
+
+    private class NodeView implements node_info {
+        private final int index;
+
+        NodeView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getKey() {
+            return keys.get(index);
+        }
+
+        @Override
+        public String getInfo() {
+            return infos == null ? "" : infos[index];
+        }
+
+        @Override
+        public void setInfo(String s) {
+            if (infos == null) {
+                String[] all = new String[size];
+                Arrays.fill(all, "");
+                infos = all;
+            }
+            infos[index] = s;
+        }
+
+        @Override
+        public double getTag() {
+            return tags == null ? 0 : tags[index];
+        }
+
+        @Override
+        public void setTag(double t) {
+            if (tags == null) tags = new double[size];
+            tags[index] = t;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof NodeView)) return false;
+            NodeView other = (NodeView) o;
+            return index == other.index && owner() == other.owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        private WGraph_CSR owner() {
+            return WGraph_CSR.this;
+        }
+    }//private class NodeView implementing node_info
+
+}//WGraph_CSR class
@@ -0,0 +1,320 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents an undirected weighted graph that may be read and changed by many threads at the same time.
+ * The vertices are kept in a ConcurrentHashMap and each vertex (Node) holds its neighbors in a ConcurrentHashMap
+ * from the key of the neighbor to the weight of the edge, so all of the reading methods (getNode, hasEdge, getEdge, getV...)
+ * never lock and scale with the number of threads.
+ * The writing methods lock the stripes of the vertices they change (the stripe of a vertex is chosen by its key),
+ * always in increasing stripe order so writers can't deadlock, which keeps both directions of an edge and the edge count
+ * consistent between writers. The mode count and the edge count are atomic.
+ * A reader may see an edge from one side a moment before it's seen from the other side, and the collections returned by
+ * getV() are weakly consistent (they never throw a ConcurrentModificationException).
+ */
+
+public class WGraph_Concurrent implements weighted_graph, Serializable {
+    private static final int DEFAULT_STRIPES = 256;
+
+    private final ConcurrentHashMap<Integer, Node> wGraph = new ConcurrentHashMap<>();
+    private final AtomicInteger edges = new AtomicInteger(), Mc = new AtomicInteger();
+    private final ReentrantLock[] stripes;
+
+    public WGraph_Concurrent() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes - the number of locks the vertices are spread over (rounded up to a power of 2),
+     *                more stripes allow more writers to work at the same time.
+     */
+    public WGraph_Concurrent(int stripes) {
+        int size = 1;
+        while (size < stripes) size <<= 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private int stripe(int key) {
+        return IntDoubleHashMap.mix(key) & (stripes.length - 1);
+    }
+
+    /**
+     * Locks the stripes of two vertices, the lower stripe first.
+     */
+    private void lock(int node1, int node2) {
+        int s1 = stripe(node1), s2 = stripe(node2);
+        stripes[Math.min(s1, s2)].lock();
+        if (s1 != s2) stripes[Math.max(s1, s2)].lock();
+    }
+
+    private void unlock(int node1, int node2) {
+        int s1 = stripe(node1), s2 = stripe(node2);
+        if (s1 != s2) stripes[Math.max(s1, s2)].unlock();
+        stripes[Math.min(s1, s2)].unlock();
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        return this.wGraph.get(key);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        if (node1 == node2) return false;
+        Node n = this.wGraph.get(node1);
+        return n != null && n.neighbors.containsKey(node2);
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        if (node1 == node2) return -1;
+        Node n = this.wGraph.get(node1);
+        if (n == null) return -1;
+        Double w = n.neighbors.get(node2);
+        return w == null ? -1 : w;
+    }
+
+    @Override
+    public void addNode(int key) {
+        ReentrantLock lock = stripes[stripe(key)];
+        lock.lock();// waits for a removal of the same key to finish removing its edges
+        try {
+            if (this.wGraph.putIfAbsent(key, new Node(key)) == null) Mc.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Connect an edge between node1 and node2, with an edge with weight >=0.
+     * if the edge node1-node2 already exists - the method simply updates the weight of the edge.
+     */
+
+    @Override
+    public void connect(int node1, int node2, double w) {
+        if (node1 == node2 || w < 0) return;
+        lock(node1, node2);
+        try {
+            Node n1 = this.wGraph.get(node1), n2 = this.wGraph.get(node2);
+            if (n1 == null || n2 == null) return;
+            if (n1.neighbors.put(node2, w) == null) edges.incrementAndGet();
+            n2.neighbors.put(node1, w);
+            Mc.incrementAndGet();
+        } finally {
+            unlock(node1, node2);
+        }
+    }
+
+    @Override
+    public Collection<node_info> getV() {
+        return Collections.unmodifiableCollection(this.wGraph.values());
+    }
+
+    /**
+     * Returns a (weakly consistent) view of the neighbors of the vertex.
+     * @param node_id
+     * @return Collection<node_info> or an empty collection if there's no such vertex.
+     */
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        Node n = this.wGraph.get(node_id);
+        if (n == null) return Collections.emptyList();
+        return new Neighbors(n);
+    }
+
+    /**
+     * Deletes the vertex and all of its edges. The stripes of the vertex and of all of its neighbors are locked
+     * (in increasing order) so the removal is seen by the other writers as a single change. If a neighbor was added
+     * between reading the neighbors and locking them, the locks are released and the removal is tried again.
+     * @param key
+     * @return the node_info removed from the graph, null if it doesn't exist.
+     */
+
+    @Override
+    public node_info removeNode(int key) {
+        while (true) {
+            Node n = this.wGraph.get(key);
+            if (n == null) return null;
+            int[] locked = stripesOf(key, n.neighbors.keySet());
+            for (int s : locked) stripes[s].lock();
+            try {
+                if (this.wGraph.get(key) != n) continue;
+                if (!Arrays.equals(locked, stripesOf(key, n.neighbors.keySet()))) continue;// a neighbor was added
+                this.wGraph.remove(key);
+                for (Integer u : n.neighbors.keySet()) {
+                    this.wGraph.get(u).neighbors.remove(key);
+                    edges.decrementAndGet();
+                    Mc.incrementAndGet();
+                }
+                n.neighbors.clear();
+                Mc.incrementAndGet();
+                return n;
+            } finally {
+                for (int i = locked.length - 1; i >= 0; i--) stripes[locked[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the sorted distinct stripes of the vertex and its neighbors.
+     */
+    private int[] stripesOf(int key, Collection<Integer> neighbors) {
+        boolean[] used = new boolean[stripes.length];
+        used[stripe(key)] = true;
+        for (Integer u : neighbors) {
+            used[stripe(u)] = true;
+        }
+        int count = 0;
+        for (boolean b : used) if (b) count++;
+        int[] ans = new int[count];
+        for (int s = 0, i = 0; s < used.length; s++) {
+            if (used[s]) ans[i++] = s;
+        }
+        return ans;
+    }
+
+    @Override
+    public void removeEdge(int node1, int node2) {
+        if (node1 == node2) return;
+        lock(node1, node2);
+        try {
+            Node n1 = this.wGraph.get(node1), n2 = this.wGraph.get(node2);
+            if (n1 == null || n2 == null) return;
+            if (n1.neighbors.remove(node2) != null) {
+                n2.neighbors.remove(node1);
+                edges.decrementAndGet();
+                Mc.incrementAndGet();
+            }
+        } finally {
+            unlock(node1, node2);
+        }
+    }
+
+    @Override
+    public int nodeSize() {
+        return this.wGraph.size();
+    }
+
+    @Override
+    public int edgeSize() {
+        return this.edges.get();
+    }
+
+    @Override
+    public int getMC() {
+        return this.Mc.get();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WGraph_Concurrent that = (WGraph_Concurrent) o;
+        return nodeSize() == that.nodeSize() &&
+                edgeSize() == that.edgeSize();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize(), edgeSize());
+    }
+
+    /**
+     * A view of the neighbors of a vertex, skipping neighbors that were removed while iterating.
+     */
+
+    private class Neighbors extends AbstractCollection<node_info> {
+        private final Node node;
+
+        Neighbors(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            Iterator<Integer> keys = node.neighbors.keySet().iterator();
+            return new Iterator<node_info>() {
+                private node_info next = advance();
+
+                private node_info advance() {
+                    while (keys.hasNext()) {
+                        node_info n = wGraph.get(keys.next());
+                        if (n != null) return n;
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public node_info next() {
+                    if (next == null) throw new NoSuchElementException();
+                    node_info ans = next;
+                    next = advance();
+                    return ans;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return node.neighbors.size();
+        }
+    }//Neighbors
+
+    private static class Node implements node_info, Serializable {
+        private final int key;
+        private volatile double tag;
+        private volatile String info;
+        private final ConcurrentHashMap<Integer, Double> neighbors = new ConcurrentHashMap<>();
+
+        Node(int k) {
+            this.key = k;
+            this.info = "";
+        }
+
+        @Override
+        public int getKey() {
+            return this.key;
+        }
+
+        @Override
+        public String getInfo() {
+            return this.info;
+        }
+
+        @Override
+        public void setInfo(String s) {
+            this.info = s;
+        }
+
+        @Override
+        public double getTag() {
+            return this.tag;
+        }
+
+        @Override
+        public void setTag(double t) {
+            this.tag = t;
+        }
+    }//private class Node implementing node_info
+
+}//WGraph_Concurrent class
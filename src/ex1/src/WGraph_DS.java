@@ -2,7 +2,9 @@ package ex1.src;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 /**
  * This class represents an undirected weighted graph with a positive number for the weight of each edge.
@@ -26,6 +28,42 @@ public class WGraph_DS implements weighted_graph , Serializable {
 
     }
 
+    /**
+     * Creates the graph from rows of neighbors (see WGraph_Builder), each HashMap is created with the exact size it needs
+     * and filled without any of the checks of addNode and connect.
+     * @param keys - the distinct keys of the vertices
+     * @param offsets - the neighbors of keys[i] are between offsets[i] and offsets[i+1]
+     * @param targets - the index (in keys) of each neighbor, every edge appears in the rows of both of its vertices
+     * @param weights - the weight of each edge, parallel to targets
+     * @param Mc - the mode count the graph starts with
+     */
+    WGraph_DS(int[] keys, int[] offsets, int[] targets, double[] weights, int Mc) {
+        this.wGraph = new HashMap<>(capacity(keys.length));
+        this.neighborsListW = new HashMap<>(capacity(keys.length));
+        node_info[] nodes = new node_info[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            nodes[i] = new Node(keys[i]);
+            this.wGraph.put(keys[i], nodes[i]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            HashMap<node_info, Double> neighbors = new HashMap<>(capacity(offsets[i + 1] - offsets[i]));
+            for (int pos = offsets[i]; pos < offsets[i + 1]; pos++) {
+                neighbors.put(nodes[targets[pos]], weights[pos]);
+            }
+            this.neighborsListW.put(keys[i], neighbors);
+        }
+        this.vertices = keys.length;
+        this.edges = targets.length / 2;
+        this.Mc = Mc;
+    }
+
+    /**
+     * @return the initial capacity of a HashMap that holds the given number of entries without resizing.
+     */
+    private static int capacity(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
     /**
      * Adding a new vertex to the graph with its unique key.
      * @param key
@@ -65,7 +103,9 @@ public class WGraph_DS implements weighted_graph , Serializable {
     @Override
     public boolean hasEdge(int node1, int node2) {
         if (node1 == node2) return false;
-        return (this.neighborsListW.get(node1).containsKey(getNode(node2)) && this.neighborsListW.get(node2).containsKey(getNode(node1)));
+        HashMap<node_info, Double> neighbors1 = this.neighborsListW.get(node1), neighbors2 = this.neighborsListW.get(node2);
+        if (neighbors1 == null || neighbors2 == null) return false;// a removed vertex has no entry in neighborsListW
+        return (neighbors1.containsKey(getNode(node2)) && neighbors2.containsKey(getNode(node1)));
     }
     /**
      * Return the weight of the edge between two vertices (if a connection between them had been established already).
@@ -123,26 +163,67 @@ public class WGraph_DS implements weighted_graph , Serializable {
 
     @Override
     public Collection<node_info> getV(int node_id) {
-        return this.neighborsListW.get(node_id).keySet();
+        HashMap<node_info, Double> neighbors = this.neighborsListW.get(node_id);
+        if (neighbors == null) return Collections.emptySet();
+        return neighbors.keySet();
     }
 
     /**
      * Deletes the vertex from the graph (by the id given) and all data related to it (neighbors and edges).
-     * this method runs in O(n) as all vertices connected to the deleted node_info should be covered.
+     * this method runs in O(degree) as only the neighbors of the deleted node_info are covered, and the map
+     * of its neighbors is removed from neighborsListW as well.
      * @param key
      * @returnthe node_info removed from the graph, null if it doesn't exist.
      */
 
     @Override
     public node_info removeNode(int key) {
-        if (this.wGraph.containsKey(key)) {
-            for (node_info n : wGraph.values()) {
-                    removeEdge(n.getKey(), key);
+        HashMap<node_info, Double> neighbors = this.neighborsListW.remove(key);
+        if (neighbors == null) return null;
+        node_info removed = this.wGraph.remove(key);
+        for (node_info n : neighbors.keySet()) {
+            this.neighborsListW.get(n.getKey()).remove(removed);
+            edges--;
+            Mc++;
+        }
+        vertices--;
+        Mc++;
+        return removed;
+    }
+
+    /**
+     * Deletes all of the given vertices (keys that are not in the graph are ignored) and their edges.
+     * The vertices are removed first, so an edge between two removed vertices is dropped together with them
+     * instead of being removed from both sides, and only the neighbors that stay in the graph are changed.
+     * The mode count grows just as if the vertices were removed one by one.
+     * This method runs in O(sum of the degrees of the removed vertices).
+     * @param keys - the vertices to remove
+     * @return the number of vertices removed.
+     */
+
+    public int removeNodes(int[] keys) {
+        HashMap<node_info, HashMap<node_info, Double>> removed = new HashMap<>();
+        for (int key : keys) {
+            HashMap<node_info, Double> neighbors = this.neighborsListW.remove(key);
+            if (neighbors != null) removed.put(this.wGraph.remove(key), neighbors);
+        }
+        int inner = 0;// edges between two removed vertices, each one seen from both sides
+        for (Map.Entry<node_info, HashMap<node_info, Double>> entry : removed.entrySet()) {
+            for (node_info n : entry.getValue().keySet()) {
+                HashMap<node_info, Double> neighbors = this.neighborsListW.get(n.getKey());
+                if (neighbors == null) {
+                    inner++;
+                    continue;
+                }
+                neighbors.remove(entry.getKey());
+                edges--;
+                Mc++;
             }
-            vertices--;
-            return wGraph.remove(key);
         }
-        return null;
+        edges -= inner / 2;
+        Mc += inner / 2 + removed.size();
+        vertices -= removed.size();
+        return removed.size();
     }
 
     /**
@@ -191,6 +272,16 @@ public class WGraph_DS implements weighted_graph , Serializable {
         return this.Mc;
     }
 
+    /**
+     * Takes an immutable compressed (CSR) snapshot of this graph, useful for running read-heavy algorithms
+     * with a fraction of the memory. Later changes to this graph do not affect the snapshot.
+     * @return WGraph_CSR snapshot of this graph.
+     */
+
+    public WGraph_CSR freeze() {
+        return WGraph_CSR.of(this);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
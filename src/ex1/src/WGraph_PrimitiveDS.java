@@ -0,0 +1,233 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class represents an undirected weighted graph, just like WGraph_DS, but without boxing:
+ * the vertices are found by their key in an IntObjectHashMap, and each vertex (Node) holds its own neighbors
+ * in an IntDoubleHashMap from the key of the neighbor to the weight of the edge.
+ * That way connect, getEdge and hasEdge never allocate and never hash a node_info.
+ * The graph is selected at construction time - create a WGraph_PrimitiveDS instead of a WGraph_DS to use it.
+ */
+
+public class WGraph_PrimitiveDS implements weighted_graph, Serializable {
+    private int edges, Mc;
+    private final IntObjectHashMap<Node> wGraph;
+
+    public WGraph_PrimitiveDS() {
+        this.wGraph = new IntObjectHashMap<>();
+    }
+
+    /**
+     * Creates an empty graph that can hold the given number of vertices without resizing.
+     * @param expectedNodes
+     */
+    public WGraph_PrimitiveDS(int expectedNodes) {
+        this.wGraph = new IntObjectHashMap<>(expectedNodes);
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        return this.wGraph.get(key);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        if (node1 == node2) return false;
+        Node n = this.wGraph.get(node1);
+        return n != null && n.neighbors.containsKey(node2);
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        if (node1 == node2) return -1;
+        Node n = this.wGraph.get(node1);
+        if (n == null) return -1;
+        return n.neighbors.get(node2, -1);
+    }
+
+    @Override
+    public void addNode(int key) {
+        if (!(this.wGraph.containsKey(key))) {
+            this.wGraph.put(key, new Node(key));
+            Mc++;
+        }
+    }
+
+    /**
+     * Connect an edge between node1 and node2, with an edge with weight >=0.
+     * if the edge node1-node2 already exists - the method simply updates the weight of the edge.
+     */
+
+    @Override
+    public void connect(int node1, int node2, double w) {
+        if (node1 == node2 || w < 0) return;
+        Node n1 = this.wGraph.get(node1), n2 = this.wGraph.get(node2);
+        if (n1 == null || n2 == null) return;
+        if (n1.neighbors.put(node2, w)) edges++;
+        n2.neighbors.put(node1, w);
+        Mc++;
+    }
+
+    @Override
+    public Collection<node_info> getV() {
+        return Collections.unmodifiableCollection(this.wGraph.values());
+    }
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        Node n = this.wGraph.get(node_id);
+        if (n == null) return new Neighbors(new IntDoubleHashMap());
+        return new Neighbors(n.neighbors);
+    }
+
+    /**
+     * Deletes the vertex from the graph and all of its edges, only the neighbors of the vertex are visited
+     * so this method runs in O(degree).
+     * @param key
+     * @return the node_info removed from the graph, null if it doesn't exist.
+     */
+
+    @Override
+    public node_info removeNode(int key) {
+        Node n = this.wGraph.remove(key);
+        if (n == null) return null;
+        IntDoubleHashMap neighbors = n.neighbors;
+        for (int slot = 0; slot < neighbors.capacity(); slot++) {
+            if (neighbors.isUsed(slot)) {
+                this.wGraph.get(neighbors.keyAt(slot)).neighbors.remove(key);
+                edges--;
+                Mc++;
+            }
+        }
+        neighbors.clear();
+        Mc++;
+        return n;
+    }
+
+    @Override
+    public void removeEdge(int node1, int node2) {
+        if (hasEdge(node1, node2)) {
+            this.wGraph.get(node1).neighbors.remove(node2);
+            this.wGraph.get(node2).neighbors.remove(node1);
+            edges--;
+            Mc++;
+        }
+    }
+
+    @Override
+    public int nodeSize() {
+        return this.wGraph.size();
+    }
+
+    @Override
+    public int edgeSize() {
+        return this.edges;
+    }
+
+    @Override
+    public int getMC() {
+        return this.Mc;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WGraph_PrimitiveDS that = (WGraph_PrimitiveDS) o;
+        return nodeSize() == that.nodeSize() &&
+                edges == that.edges;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize(), edges, Mc);
+    }
+
+    /**
+     * A view of the neighbors of a vertex, mapping the keys in its neighbors map to the vertices themselves.
+     */
+
+    private class Neighbors extends AbstractCollection<node_info> {
+        private final IntDoubleHashMap neighbors;
+
+        Neighbors(IntDoubleHashMap neighbors) {
+            this.neighbors = neighbors;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            return new Iterator<node_info>() {
+                private int slot = advance(0);
+
+                private int advance(int from) {
+                    while (from < neighbors.capacity() && !neighbors.isUsed(from)) from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return slot < neighbors.capacity();
+                }
+
+                @Override
+                public node_info next() {
+                    if (slot >= neighbors.capacity()) throw new NoSuchElementException();
+                    node_info n = wGraph.get(neighbors.keyAt(slot));
+                    slot = advance(slot + 1);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return neighbors.size();
+        }
+    }//Neighbors
+
+    private static class Node implements node_info, Serializable {
+        private final int key;
+        private double tag;
+        private String info;
+        private final IntDoubleHashMap neighbors;
+
+        Node(int k) {
+            this.key = k;
+            this.info = "";
+            this.neighbors = new IntDoubleHashMap();
+        }
+
+        @Override
+        public int getKey() {
+            return this.key;
+        }
+
+        @Override
+        public String getInfo() {
+            return this.info;
+        }
+
+        @Override
+        public void setInfo(String s) {
+            this.info = s;
+        }
+
+        @Override
+        public double getTag() {
+            return this.tag;
+        }
+
+        @Override
+        public void setTag(double t) {
+            this.tag = t;
+        }
+    }//private class Node implementing node_info
+
+}//WGraph_PrimitiveDS class
@@ -0,0 +1,363 @@
+package ex1.src;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class represents an undirected weighted graph with copy-on-write snapshots.
+ * The vertices are kept in a persistent map (PersistentIntMap) from the key to the vertex, and each vertex holds its
+ * neighbors in a persistent map from the key of the neighbor to the weight of the edge.
+ * snapshot() returns an immutable view of the graph as it is at the current getMC() in O(1): the snapshot keeps the
+ * current maps and the graph starts a new edit token, so from then on the graph copies a map node (or a vertex) the first
+ * time it changes it instead of changing it in place. The snapshot and the graph share all of the vertices and adjacency
+ * that were not changed since, and a snapshot never sees later writes, so it can be handed to WGraph_Algo.init (or read
+ * by other threads) while the graph keeps changing.
+ * The changing methods and snapshot() are synchronized, reading the graph itself while another thread changes it is not
+ * safe - such readers should take a snapshot.
+ */
+
+public class WGraph_Versioned implements weighted_graph, Serializable {
+    private PersistentIntMap<Vertex> vertices;
+    private int edges, Mc;
+    private final boolean frozen;
+    private transient Object edit = new Object();
+    private transient WGraph_Versioned lastSnapshot;
+
+    public WGraph_Versioned() {
+        this(PersistentIntMap.empty(), 0, 0, false);
+    }
+
+    private WGraph_Versioned(PersistentIntMap<Vertex> vertices, int edges, int Mc, boolean frozen) {
+        this.vertices = vertices;
+        this.edges = edges;
+        this.Mc = Mc;
+        this.frozen = frozen;
+    }
+
+    /**
+     * Returns an immutable snapshot of the graph at the current mode count, in O(1).
+     * Taking a snapshot twice without changing the graph in between returns the same snapshot.
+     * The snapshot throws an UnsupportedOperationException on any change, including setInfo and setTag of its vertices.
+     * @return the snapshot, or this graph if it's a snapshot itself.
+     */
+
+    public synchronized WGraph_Versioned snapshot() {
+        if (frozen) return this;
+        if (lastSnapshot == null || lastSnapshot.Mc != Mc) {
+            lastSnapshot = new WGraph_Versioned(vertices, edges, Mc, true);
+            edit = new Object();// the nodes seen by the snapshot are never changed in place again
+        }
+        return lastSnapshot;
+    }
+
+    /**
+     * @return true if this graph is a snapshot (cannot be changed).
+     */
+
+    public boolean isSnapshot() {
+        return frozen;
+    }
+
+    private void checkWritable() {
+        if (frozen) throw new UnsupportedOperationException("a WGraph_Versioned snapshot is immutable");
+    }
+
+    /**
+     * Returns the vertex with the given key so it can be changed in place, copying it first if it may be seen by a snapshot.
+     */
+    private Vertex editable(Vertex v) {
+        if (v.edit == edit) return v;
+        Vertex copy = new Vertex(v, edit);
+        vertices = vertices.put(edit, copy.key, copy);
+        return copy;
+    }
+
+    @Override
+    public node_info getNode(int key) {
+        Vertex v = vertices.get(key);
+        if (v == null) return null;
+        return new NodeView(v);
+    }
+
+    @Override
+    public boolean hasEdge(int node1, int node2) {
+        return getEdge(node1, node2) != -1;
+    }
+
+    @Override
+    public double getEdge(int node1, int node2) {
+        if (node1 == node2) return -1;
+        Vertex v = vertices.get(node1);
+        if (v == null) return -1;
+        Double w = v.neighbors.get(node2);
+        return w == null ? -1 : w;
+    }
+
+    @Override
+    public synchronized void addNode(int key) {
+        checkWritable();
+        if (vertices.get(key) == null) {
+            vertices = vertices.put(edit, key, new Vertex(key, edit));
+            Mc++;
+        }
+    }
+
+    /**
+     * Connect an edge between node1 and node2, with an edge with weight >=0.
+     * if the edge node1-node2 already exists - the method simply updates the weight of the edge.
+     */
+
+    @Override
+    public synchronized void connect(int node1, int node2, double w) {
+        checkWritable();
+        if (node1 == node2 || w < 0) return;
+        Vertex v1 = vertices.get(node1), v2 = vertices.get(node2);
+        if (v1 == null || v2 == null) return;
+        v1 = editable(v1);
+        v2 = editable(v2);
+        int degree = v1.neighbors.size();
+        Double weight = w;
+        v1.neighbors = v1.neighbors.put(edit, node2, weight);
+        v2.neighbors = v2.neighbors.put(edit, node1, weight);
+        if (v1.neighbors.size() != degree) edges++;
+        Mc++;
+    }
+
+    @Override
+    public Collection<node_info> getV() {
+        return new Vertices(vertices, null);
+    }
+
+    @Override
+    public Collection<node_info> getV(int node_id) {
+        Vertex v = vertices.get(node_id);
+        if (v == null) return new Vertices(PersistentIntMap.empty(), null);
+        return new Vertices(vertices, v.neighbors);
+    }
+
+    /**
+     * Deletes the vertex and all of its edges in O(degree) map operations.
+     * @param key
+     * @return the node_info removed from the graph (as it was just before the removal), null if it doesn't exist.
+     */
+
+    @Override
+    public synchronized node_info removeNode(int key) {
+        checkWritable();
+        Vertex v = vertices.get(key);
+        if (v == null) return null;
+        PersistentIntMap.KeyIterator it = v.neighbors.keys();
+        while (it.hasNext()) {
+            Vertex u = editable(vertices.get(it.next()));
+            u.neighbors = u.neighbors.remove(edit, key);
+            edges--;
+            Mc++;
+        }
+        vertices = vertices.remove(edit, key);
+        Mc++;
+        return new NodeView(v);
+    }
+
+    @Override
+    public synchronized void removeEdge(int node1, int node2) {
+        checkWritable();
+        if (!hasEdge(node1, node2)) return;
+        Vertex v1 = editable(vertices.get(node1)), v2 = editable(vertices.get(node2));
+        v1.neighbors = v1.neighbors.remove(edit, node2);
+        v2.neighbors = v2.neighbors.remove(edit, node1);
+        edges--;
+        Mc++;
+    }
+
+    @Override
+    public int nodeSize() {
+        return vertices.size();
+    }
+
+    @Override
+    public int edgeSize() {
+        return edges;
+    }
+
+    @Override
+    public int getMC() {
+        return Mc;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WGraph_Versioned that = (WGraph_Versioned) o;
+        return nodeSize() == that.nodeSize() &&
+                edgeSize() == that.edgeSize();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize(), edgeSize());
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        edit = new Object();// the loaded nodes belong to no token, they are copied on the first change
+    }
+
+    /**
+     * A collection of the vertices of a map (all the vertices if keys is null, otherwise the vertices whose keys are in keys).
+     * The maps it holds are the ones current when it was created.
+     */
+
+    private class Vertices extends AbstractCollection<node_info> {
+        private final PersistentIntMap<Vertex> map;
+        private final PersistentIntMap<Double> keys;
+
+        Vertices(PersistentIntMap<Vertex> map, PersistentIntMap<Double> keys) {
+            this.map = map;
+            this.keys = keys;
+        }
+
+        @Override
+        public Iterator<node_info> iterator() {
+            if (keys == null) {
+                Iterator<Vertex> it = map.values();
+                return new Iterator<node_info>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public node_info next() {
+                        return new NodeView(it.next());
+                    }
+                };
+            }
+            PersistentIntMap.KeyIterator it = keys.keys();
+            return new Iterator<node_info>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public node_info next() {
+                    if (!it.hasNext()) throw new NoSuchElementException();
+                    return new NodeView(map.get(it.next()));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys == null ? map.size() : keys.size();
+        }
+    }//Vertices
+
+    /**
+     * A vertex, changed in place only by the edit token that created it.
+     */
+
+    private static class Vertex implements Serializable {
+        private final int key;
+        private String info;
+        private double tag;
+        private PersistentIntMap<Double> neighbors;
+        private final transient Object edit;
+
+        Vertex(int key, Object edit) {
+            this.key = key;
+            this.info = "";
+            this.neighbors = PersistentIntMap.empty();
+            this.edit = edit;
+        }
+
+        Vertex(Vertex other, Object edit) {
+            this.key = other.key;
+            this.info = other.info;
+            this.tag = other.tag;
+            this.neighbors = other.neighbors;
+            this.edit = edit;
+        }
+    }//Vertex
+
+    /**
+     * The node_info of a vertex. On a snapshot it reads the vertex it was created with and cannot be changed,
+     * on the graph itself it reads (and changes) the current version of the vertex with its key.
+     */
+
+    private class NodeView implements node_info {
+        private Vertex vertex;
+
+        NodeView(Vertex vertex) {
+            this.vertex = vertex;
+        }
+
+        private Vertex current() {
+            if (!frozen) {
+                Vertex v = vertices.get(vertex.key);
+                if (v != null) vertex = v;
+            }
+            return vertex;
+        }
+
+        @Override
+        public int getKey() {
+            return vertex.key;
+        }
+
+        @Override
+        public String getInfo() {
+            return current().info;
+        }
+
+        @Override
+        public void setInfo(String s) {
+            checkWritable();
+            synchronized (WGraph_Versioned.this) {
+                if (vertices.get(vertex.key) == null) return;// removed from the graph
+                vertex = editable(current());
+                vertex.info = s;
+                lastSnapshot = null;
+            }
+        }
+
+        @Override
+        public double getTag() {
+            return current().tag;
+        }
+
+        @Override
+        public void setTag(double t) {
+            checkWritable();
+            synchronized (WGraph_Versioned.this) {
+                if (vertices.get(vertex.key) == null) return;
+                vertex = editable(current());
+                vertex.tag = t;
+                lastSnapshot = null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof NodeView)) return false;
+            NodeView other = (NodeView) o;
+            return getKey() == other.getKey() && owner() == other.owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey();
+        }
+
+        private WGraph_Versioned owner() {
+            return WGraph_Versioned.this;
+        }
+    }//private class NodeView implementing node_info
+
+}//WGraph_Versioned class
@@ -0,0 +1,49 @@
+package ex1.src;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A pool of search workspaces (e.g. DijkstraEngine) so that concurrent queries each get their own state
+ * without allocating the arrays of a workspace for every query.
+ * A workspace is taken with acquire() and must be returned with release() once the query is done with it,
+ * at most maxIdle workspaces are kept, the rest are left to the garbage collector.
+ */
+
+class WorkspacePool<T> {
+    private final Supplier<T> factory;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    WorkspacePool(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    WorkspacePool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return an idle workspace, or a new one if there's none.
+     */
+    T acquire() {
+        T t = idle.poll();
+        if (t == null) return factory.get();
+        idleCount.decrementAndGet();
+        return t;
+    }
+
+    /**
+     * Returns a workspace to the pool, it must not be used by the caller after that.
+     */
+    void release(T t) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(t);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ex1.tests;
+
+import ex1.src.BreadthFirstSearch;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_Builder;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreadthFirstSearchTest {
+
+    /**
+     * A plain sequential BFS over the CSR rows.
+     */
+    private static int[] expectedHops(WGraph_CSR g, int src) {
+        int[] dist = new int[g.nodeSize()];
+        Arrays.fill(dist, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        dist[src] = 0;
+        queue.add(src);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int pos = g.rowStart(u); pos < g.rowEnd(u); pos++) {
+                int v = g.target(pos);
+                if (dist[v] < 0) {
+                    dist[v] = dist[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Test
+    void path() {
+        WGraph_DS g = new WGraph_DS();
+        for (int i = 0; i < 10; i++) g.addNode(i);
+        for (int i = 1; i < 8; i++) g.connect(i - 1, i, 100);// the weights are ignored
+        g.connect(0, 7, 0.5);
+        BreadthFirstSearch bfs = new BreadthFirstSearch(WGraph_CSR.of(g), 0);
+        assertEquals(0, bfs.hops(0));
+        assertEquals(3, bfs.hops(3));
+        assertEquals(2, bfs.hops(6));
+        assertEquals(-1, bfs.hops(9));
+        assertEquals(-1, bfs.hops(42));
+        assertEquals(8, bfs.reachedCount());
+        assertEquals(4, bfs.depth());
+
+        BreadthFirstSearch missing = new BreadthFirstSearch(WGraph_CSR.of(g), 42);
+        assertEquals(0, missing.reachedCount());
+        assertEquals(-1, missing.hops(0));
+    }
+
+    @Test
+    void parallel() {
+        int v = 60000;
+        Random rnd = new Random(5);
+        WGraph_Builder b = new WGraph_Builder(v, 8 * v);
+        for (int i = 0; i < v; i++) b.addNode(i);
+        for (int i = 0; i < 4 * v; i++) b.addEdge(rnd.nextInt(v), rnd.nextInt(v), 1);
+        WGraph_CSR g = b.buildCSR();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int src : new int[]{0, 17, 59999}) {
+                BreadthFirstSearch bfs = new BreadthFirstSearch(g, src, pool);
+                int[] expected = expectedHops(g, g.indexOf(src));
+                assertArrayEquals(expected, bfs.distances());
+                assertTrue(bfs.bottomUpSteps() > 0);// a random graph has a few huge levels
+                assertEquals(Arrays.stream(expected).filter(d -> d >= 0).count(), bfs.reachedCount());
+                assertEquals(Arrays.stream(expected).max().getAsInt(), bfs.depth());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void algo() {
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(WGraph_DSTest.graph_creator(300, 600, 4));
+        BreadthFirstSearch bfs = algo.hops(0);
+        WGraph_CSR g = bfs.getGraph();
+        assertArrayEquals(expectedHops(g, g.indexOf(0)), bfs.distances());
+        assertNull(algo.hops(1000));
+    }
+}
@@ -0,0 +1,76 @@
+package ex1.tests;
+
+import ex1.src.Components;
+import ex1.src.ConnectivityTracker;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_Builder;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentsTest {
+
+    @Test
+    void smallGraph() {
+        WGraph_DS g = new WGraph_DS();
+        for (int i = 0; i < 6; i++) g.addNode(i * 10);
+        g.connect(0, 10, 1);
+        g.connect(20, 50, 1);
+        g.connect(50, 40, 1);
+        Components c = new Components(WGraph_CSR.of(g));
+        assertEquals(3, c.count());
+        assertFalse(c.isConnected());
+        assertArrayEquals(new int[]{0, 0, 1, 2, 1, 1}, c.ids());// numbered by their smallest key
+        assertArrayEquals(new int[]{2, 3, 1}, c.sizes());
+        assertEquals(1, c.componentOf(40));
+        assertEquals(3, c.sizeOf(20));
+        assertEquals(-1, c.componentOf(7));
+        assertEquals(-1, c.sizeOf(7));
+
+        assertTrue(new Components(WGraph_CSR.of(new WGraph_DS())).isConnected());
+    }
+
+    @Test
+    void parallel() {
+        int v = 50000;
+        Random rnd = new Random(11);
+        WGraph_Builder b = new WGraph_Builder(v, 40000);
+        for (int i = 0; i < v; i++) b.addNode(i);
+        for (int i = 0; i < 40000; i++) b.addEdge(rnd.nextInt(v), rnd.nextInt(v), 1);
+        WGraph_CSR g = b.buildCSR();
+        ConnectivityTracker expected = new ConnectivityTracker(g);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 3; run++) {
+                Components c = new Components(g, pool);
+                assertEquals(expected.componentCount(), c.count());
+                int[] ids = c.ids(), sizes = c.sizes();
+                for (int i = 0; i < v; i += 97) {
+                    int key = g.keyAt(i);
+                    assertEquals(expected.componentSize(key), sizes[ids[i]]);
+                    int other = g.keyAt(rnd.nextInt(v));
+                    assertEquals(expected.sameComponent(key, other), c.componentOf(key) == c.componentOf(other));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void algo() {
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(WGraph_DSTest.graph_creator(200, 150, 3));
+        Components c = algo.components();
+        assertEquals(algo.isConnected(), c.isConnected());
+        int total = 0;
+        for (int s : c.sizes()) total += s;
+        assertEquals(200, total);
+    }
+}
@@ -0,0 +1,156 @@
+package ex1.tests;
+
+import ex1.src.CompressedGraphFormat;
+import ex1.src.GraphFormat;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static ex1.tests.GraphFormatTest.assertSameGraph;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedGraphFormatTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(500, 3000, 1);
+        g.addNode(-7);// an isolated vertex with a negative key
+        g.addNode(Integer.MIN_VALUE);
+        g.addNode(Integer.MAX_VALUE);
+        g.connect(Integer.MIN_VALUE, Integer.MAX_VALUE, 0.5);
+        g.getNode(3).setInfo("3,4");
+        g.getNode(4).setInfo("\u05e9\u05dc\u05d5\u05dd");
+        g.getNode(5).setInfo(null);
+        String file = dir.resolve("g.wgz").toString();
+        CompressedGraphFormat.write(g, file);
+        assertTrue(CompressedGraphFormat.isCompressedFile(file));
+        assertFalse(GraphFormat.isGraphFile(file));
+
+        WGraph_DS ds = CompressedGraphFormat.read(file);
+        assertSameGraph(g, ds);
+        ds.connect(-7, 0, 1);// a regular mutable graph
+        assertEquals(1, ds.getEdge(0, -7));
+
+        WGraph_CSR csr = CompressedGraphFormat.readCSR(file);
+        assertSameGraph(g, csr);
+        assertEquals(g.getMC(), csr.getMC());
+    }
+
+    @Test
+    void wholeWeights() throws IOException {
+        weighted_graph g = new WGraph_DS();
+        for (int i = 0; i < 2000; i++) g.addNode(i);
+        for (int i = 0; i < 2000; i++) {
+            for (int d = 1; d <= 5; d++) g.connect(i, (i + d) % 2000, d * 3);
+        }
+        String compressed = dir.resolve("g.wgz").toString(), plain = dir.resolve("g.wgr").toString();
+        CompressedGraphFormat.write(g, compressed);
+        GraphFormat.write(g, plain);
+        assertSameGraph(g, CompressedGraphFormat.read(compressed));
+        // every edge once, with a one byte gap and a one byte weight
+        assertTrue(new File(compressed).length() * 5 < new File(plain).length(),
+                new File(compressed).length() + " vs " + new File(plain).length());
+    }
+
+    @Test
+    void quantized() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(300, 1500, 2);
+        String file = dir.resolve("g.wgz").toString();
+        CompressedGraphFormat.write(g, file, 0.01);
+        weighted_graph read = CompressedGraphFormat.read(file);
+        assertEquals(g.edgeSize(), read.edgeSize());
+        for (node_info n : g.getV()) {
+            for (node_info u : g.getV(n.getKey())) {
+                assertEquals(g.getEdge(n.getKey(), u.getKey()), read.getEdge(n.getKey(), u.getKey()), 0.005 + 1e-9);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> CompressedGraphFormat.write(g, file, -1));
+    }
+
+    @Test
+    void emptyGraph() throws IOException {
+        String file = dir.resolve("empty.wgz").toString();
+        CompressedGraphFormat.write(new WGraph_DS(), file);
+        assertEquals(0, CompressedGraphFormat.read(file).nodeSize());
+    }
+
+    @Test
+    void saveLoad() {
+        weighted_graph g = WGraph_DSTest.graph_creator(100, 400, 3);
+        g.getNode(7).setInfo(null);// the only info that isn't ""
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        String file = dir.resolve("g.wgz").toString();
+        assertTrue(algo.saveCompressed(file, 0));
+        WGraph_Algo loaded = new WGraph_Algo();
+        assertTrue(loaded.load(file));
+        assertSameGraph(g, loaded.getGraph());
+        assertNull(loaded.getGraph().getNode(7).getInfo());
+        assertEquals(algo.shortestPathDist(0, 99), loaded.shortestPathDist(0, 99));
+    }
+
+    @Test
+    void brokenFiles() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(50, 100, 4);
+        String truncated = dir.resolve("truncated.wgz").toString();
+        CompressedGraphFormat.write(g, truncated);
+        try (RandomAccessFile f = new RandomAccessFile(truncated, "rw")) {
+            f.setLength(f.length() / 2);
+        }
+        IOException e = assertThrows(IOException.class, () -> CompressedGraphFormat.read(truncated));
+        assertTrue(e.getMessage().contains("end of file"), e.getMessage());
+
+        String version = dir.resolve("version.wgz").toString();
+        CompressedGraphFormat.write(g, version);
+        try (RandomAccessFile f = new RandomAccessFile(version, "rw")) {
+            f.seek(4);
+            f.write(99);
+        }
+        e = assertThrows(IOException.class, () -> CompressedGraphFormat.read(version));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+
+        String corrupt = dir.resolve("corrupt.wgz").toString();
+        CompressedGraphFormat.write(g, corrupt);
+        try (RandomAccessFile f = new RandomAccessFile(corrupt, "rw")) {
+            f.seek(40 + 50);// the neighbor count of the first vertex (the keys are one byte each)
+            f.write(120);
+        }
+        e = assertThrows(IOException.class, () -> CompressedGraphFormat.read(corrupt));
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+
+        // a header claiming a billion edges, followed by a single byte
+        String huge = dir.resolve("huge.wgz").toString();
+        ByteBuffer header = ByteBuffer.allocate(41).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x5A524757).putInt(1).putInt(1).putInt(1_000_000_000);
+        Files.write(Paths.get(huge), header.array());
+        e = assertThrows(IOException.class, () -> CompressedGraphFormat.read(huge));
+        assertTrue(e.getMessage().contains("corrupt header"), e.getMessage());
+        header.putInt(8, 1_000_000_000).putInt(12, 0);
+        Files.write(Paths.get(huge), header.array());
+        e = assertThrows(IOException.class, () -> CompressedGraphFormat.read(huge));
+        assertTrue(e.getMessage().contains("corrupt header"), e.getMessage());
+
+        WGraph_Algo algo = new WGraph_Algo();
+        weighted_graph before = new WGraph_DS();
+        algo.init(before);
+        assertFalse(algo.load(huge));
+        assertFalse(algo.load(corrupt));
+        assertSame(before, algo.getGraph());
+    }
+}
@@ -0,0 +1,133 @@
+package ex1.tests;
+
+import ex1.src.ConnectivityTracker;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_PrimitiveDS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs all of the WGraph_DSTest tests against ConnectivityTracker, and checks its components against a BFS.
+ */
+class ConnectivityTrackerTest extends WGraph_DSTest {
+
+    @Override
+    protected weighted_graph newGraph() {
+        return new ConnectivityTracker(new WGraph_PrimitiveDS());
+    }
+
+    private static Set<Integer> component(weighted_graph g, int key) {
+        Set<Integer> seen = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        seen.add(key);
+        queue.add(key);
+        while (!queue.isEmpty()) {
+            for (node_info ni : g.getV(queue.poll())) {
+                if (seen.add(ni.getKey())) queue.add(ni.getKey());
+            }
+        }
+        return seen;
+    }
+
+    @Test
+    void randomChanges() {
+        int v = 80;
+        ConnectivityTracker g = new ConnectivityTracker(new WGraph_PrimitiveDS());
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g.getGraph());
+        Random rnd = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            int a = rnd.nextInt(v), b = rnd.nextInt(v);
+            switch (rnd.nextInt(6)) {
+                case 0: case 1: g.addNode(a); break;
+                case 2: g.removeNode(a); break;
+                case 3: g.removeEdge(a, b); break;
+                default: g.connect(a, b, rnd.nextInt(10));
+            }
+            if (i % 10 == 0) {
+                assertEquals(algo.isConnected(), g.isConnected());
+                if (g.getNode(a) != null) {
+                    Set<Integer> expected = component(g, a);
+                    assertEquals(expected.size(), g.componentSize(a));
+                    assertEquals(expected.contains(b), g.sameComponent(a, b));
+                } else {
+                    assertEquals(-1, g.componentSize(a));
+                    assertFalse(g.sameComponent(a, b));
+                }
+            }
+        }
+    }
+
+    @Test
+    void addsDoNotRebuild() {
+        ConnectivityTracker g = new ConnectivityTracker(new WGraph_PrimitiveDS());
+        for (int i = 0; i < 100; i++) g.addNode(i);
+        assertEquals(100, g.componentCount());
+        for (int i = 1; i < 100; i += 2) g.connect(i - 1, i, 1);
+        assertEquals(50, g.componentCount());
+        assertFalse(g.isConnected());
+        for (int i = 2; i < 100; i += 2) g.connect(i - 1, i, 1);
+        assertTrue(g.isConnected());
+        assertTrue(g.sameComponent(0, 99));
+        assertEquals(1, g.rebuildCount());// only the one of the constructor
+
+        g.removeEdge(49, 50);
+        g.removeEdge(0, 50);// no such edge, nothing changes
+        assertEquals(1, g.rebuildCount());// rebuilt lazily, on the next query
+        assertFalse(g.isConnected());
+        assertEquals(2, g.componentCount());
+        assertEquals(50, g.componentSize(0));
+        assertEquals(2, g.rebuildCount());
+        g.removeNode(0);
+        assertEquals(49, g.componentSize(1));
+        assertFalse(g.sameComponent(0, 1));
+    }
+
+    @Test
+    void directChanges() {
+        ConnectivityTracker g = new ConnectivityTracker(WGraph_DSTest.graph_creator(50, 0, 1));
+        assertEquals(50, g.componentCount());
+        g.getGraph().connect(0, 1, 1);// bypassing the tracker
+        assertTrue(g.sameComponent(0, 1));
+        g.getGraph().addNode(100);
+        g.connect(2, 3, 1);// the tracker missed a change, so it rebuilds
+        assertEquals(49, g.componentCount());
+        assertEquals(1, g.componentSize(100));
+
+        g = new ConnectivityTracker(WGraph_DSTest.graph_creator(2, 0, 1));
+        g.connect(0, 1, 1);
+        assertTrue(g.isConnected());
+        g.getGraph().removeEdge(0, 1);// bypassing the tracker
+        g.removeEdge(5, 6);// doesn't change the graph, but the tracker still missed a change
+        assertFalse(g.isConnected());
+
+        g = new ConnectivityTracker(WGraph_DSTest.graph_creator(3, 0, 1));
+        g.connect(0, 1, 1);
+        g.connect(1, 2, 1);
+        assertTrue(g.isConnected());
+        g.getGraph().removeNode(1);
+        g.removeNode(42);
+        assertFalse(g.isConnected());
+    }
+
+    @Test
+    void algo() {
+        ConnectivityTracker g = new ConnectivityTracker(WGraph_DSTest.graph_creator(30, 200, 2));
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        boolean connected = g.isConnected();
+        assertEquals(connected, algo.isConnected());
+        int rebuilds = g.rebuildCount();
+        for (int i = 0; i < 10; i++) algo.isConnected();
+        assertEquals(rebuilds, g.rebuildCount());
+        assertEquals(algo.copy().edgeSize(), g.edgeSize());
+    }
+}
@@ -0,0 +1,98 @@
+package ex1.tests;
+
+import ex1.src.ContractionHierarchy;
+import ex1.src.WGraph_Algo;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @Test
+    void smallGraph() {
+        weighted_graph g0 = WGraph_DSTest.graph_creator(11, 0, 1);
+        g0.connect(0, 1, 1);
+        g0.connect(0, 2, 2);
+        g0.connect(0, 3, 3);
+        g0.connect(1, 4, 17);
+        g0.connect(1, 5, 1);
+        g0.connect(2, 4, 1);
+        g0.connect(3, 5, 10);
+        g0.connect(3, 6, 100);
+        g0.connect(5, 7, 1.1);
+        g0.connect(6, 7, 10);
+        g0.connect(7, 10, 2);
+        g0.connect(6, 8, 30);
+        g0.connect(8, 10, 10);
+        g0.connect(4, 10, 30);
+        g0.connect(3, 9, 10);
+        ContractionHierarchy ch = new ContractionHierarchy(g0);
+        assertEquals(16, ch.shortestPathDist(9, 4), 1e-9);
+        int[] checkKey = {0, 1, 5, 7, 10, 8};
+        List<node_info> sp = ch.shortestPath(0, 8);
+        assertEquals(checkKey.length, sp.size());
+        for (int i = 0; i < checkKey.length; i++) {
+            assertEquals(checkKey[i], sp.get(i).getKey());
+        }
+        assertEquals(0, ch.shortestPath(3, 3).size());
+        assertEquals(-1, ch.shortestPathDist(3, 11));
+        assertNull(ch.shortestPath(11, 3));
+    }
+
+    @Test
+    void randomGraphs() {
+        checkAgainstDijkstra(WGraph_DSTest.graph_creator(500, 1200, 7), 500);
+        checkAgainstDijkstra(WGraph_DSTest.graph_creator(300, 200, 8), 300);// not connected
+        int side = 40;
+        weighted_graph grid = WGraph_DSTest.graph_creator(side * side, 0, 1);
+        Random rnd = new Random(9);
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                int key = x * side + y;
+                if (x + 1 < side) grid.connect(key, key + side, 1 + rnd.nextInt(5));
+                if (y + 1 < side) grid.connect(key, key + 1, 1 + rnd.nextInt(5));
+            }
+        }
+        checkAgainstDijkstra(grid, side * side);
+    }
+
+    private void checkAgainstDijkstra(weighted_graph g, int n) {
+        ContractionHierarchy ch = new ContractionHierarchy(g);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        Random rnd = new Random(n);
+        for (int q = 0; q < 300; q++) {
+            int src = rnd.nextInt(n), dest = rnd.nextInt(n);
+            double d = algo.shortestPathDist(src, dest);
+            assertEquals(d, ch.shortestPathDist(src, dest), 1e-9);
+            List<node_info> sp = ch.shortestPath(src, dest);
+            if (d == -1) {
+                assertNull(sp);
+                continue;
+            }
+            if (src == dest) continue;
+            assertEquals(src, sp.get(0).getKey());
+            assertEquals(dest, sp.get(sp.size() - 1).getKey());
+            double sum = 0;
+            for (int i = 1; i < sp.size(); i++) {
+                assertTrue(g.hasEdge(sp.get(i - 1).getKey(), sp.get(i).getKey()));
+                sum += g.getEdge(sp.get(i - 1).getKey(), sp.get(i).getKey());
+            }
+            assertEquals(d, sum, 1e-9);
+        }
+    }
+
+    @Test
+    void changedGraph() {
+        weighted_graph g0 = WGraph_DSTest.graph_creator(10, 20, 1);
+        ContractionHierarchy ch = new ContractionHierarchy(g0);
+        ch.shortestPathDist(0, 9);
+        g0.removeNode(0);
+        assertThrows(IllegalStateException.class, () -> ch.shortestPathDist(1, 9));
+    }
+}
@@ -0,0 +1,88 @@
+package ex1.tests;
+
+import ex1.src.DeltaStepping;
+import ex1.src.DijkstraEngine;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_Builder;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSteppingTest {
+
+    private static void assertSameDistances(WGraph_CSR g, int src, DeltaStepping ds) {
+        DijkstraEngine engine = new DijkstraEngine(g);
+        engine.run(g.indexOf(src));
+        double[] dist = ds.distances();
+        for (int v = 0; v < g.nodeSize(); v++) {
+            double expected = engine.dist(v);
+            if (expected == Double.POSITIVE_INFINITY) assertEquals(-1, dist[v]);
+            else assertEquals(expected, dist[v], 1e-9 * Math.max(1, expected));
+        }
+    }
+
+    @Test
+    void smallGraph() {
+        WGraph_DS g = new WGraph_DS();
+        for (int i = 0; i < 6; i++) g.addNode(i);
+        g.connect(0, 1, 4);
+        g.connect(0, 2, 1);
+        g.connect(2, 1, 2);
+        g.connect(1, 3, 5);
+        g.connect(3, 4, 0);
+        DeltaStepping ds = new DeltaStepping(WGraph_CSR.of(g), 0, 1.5);
+        assertEquals(0, ds.dist(0));
+        assertEquals(3, ds.dist(1));
+        assertEquals(8, ds.dist(4));
+        assertEquals(-1, ds.dist(5));
+        assertEquals(-1, ds.dist(42));
+        assertEquals(1.5, ds.getDelta());
+
+        assertEquals(-1, new DeltaStepping(WGraph_CSR.of(g), 42).dist(0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(WGraph_CSR.of(g), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(WGraph_CSR.of(g), 0, 1e-12));
+        assertEquals(8, new DeltaStepping(WGraph_CSR.of(g), 0, 5.0 / 62).dist(4));// 64 buckets
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(WGraph_CSR.of(g), 0, 5.0 / 63));
+        assertTrue(e.getMessage().contains("too small"), e.getMessage());
+    }
+
+    @Test
+    void parallel() {
+        int v = 30000;
+        Random rnd = new Random(9);
+        WGraph_Builder b = new WGraph_Builder(v, 5 * v);
+        for (int i = 0; i < v; i++) b.addNode(i);
+        for (int i = 0; i < 5 * v; i++) b.addEdge(rnd.nextInt(v), rnd.nextInt(v), rnd.nextInt(4) == 0 ? 0 : rnd.nextDouble() * 100);
+        WGraph_CSR g = b.buildCSR();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double defaultDelta = DeltaStepping.defaultDelta(g);
+            for (double delta : new double[]{0.5, defaultDelta, 25, 1000}) {
+                DeltaStepping ds = new DeltaStepping(g, 7, delta, pool);
+                assertSameDistances(g, 7, ds);
+            }
+            // a smaller delta settles more buckets
+            assertTrue(new DeltaStepping(g, 7, 1, pool).phases() > new DeltaStepping(g, 7, 50, pool).phases());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void algo() {
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(WGraph_DSTest.graph_creator(400, 1500, 6));
+        DeltaStepping ds = algo.deltaStepping(0, 0);
+        assertSameDistances(ds.getGraph(), 0, ds);
+        for (int dest = 0; dest < 400; dest += 13) {
+            assertEquals(algo.shortestPathDist(0, dest), ds.dist(dest), 1e-9);
+        }
+        assertNull(algo.deltaStepping(1000, 0));
+    }
+}
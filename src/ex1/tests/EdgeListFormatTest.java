@@ -0,0 +1,97 @@
+package ex1.tests;
+
+import ex1.src.EdgeListFormat;
+import ex1.src.WGraph_Builder;
+import ex1.src.WGraph_DS;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeListFormatTest {
+
+    @TempDir
+    Path dir;
+
+    private String file(String name, String content) throws IOException {
+        Path p = dir.resolve(name);
+        Files.write(p, content.getBytes(StandardCharsets.US_ASCII));
+        return p.toString();
+    }
+
+    @Test
+    void csvRoundTrip() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(400, 2000, 1);
+        g.connect(0, 1, 12);
+        String file = dir.resolve("g.csv").toString();
+        EdgeListFormat.writeCSV(g, file);
+        WGraph_DS loaded = EdgeListFormat.readCSV(file);
+        assertEquals(g.edgeSize(), loaded.edgeSize());
+        GraphFormatTest.assertSameGraph(loaded, g);
+
+        WGraph_DS connected = new WGraph_DS();
+        EdgeListFormat.readCSV(file, connected);
+        GraphFormatTest.assertSameGraph(loaded, connected);
+    }
+
+    @Test
+    void dimacsRoundTrip() throws IOException {
+        WGraph_Builder builder = new WGraph_Builder();
+        for (int i = 1; i <= 100; i++) {
+            builder.addEdge(i, i % 100 + 1, i);
+            builder.addEdge(i, (i * 7) % 100 + 1, 0.5 + i);
+        }
+        WGraph_DS g = builder.build();
+        String file = dir.resolve("g.gr").toString();
+        EdgeListFormat.writeDimacs(g, file);
+        WGraph_DS loaded = EdgeListFormat.readDimacs(file);
+        assertEquals(g.edgeSize(), loaded.edgeSize());
+        GraphFormatTest.assertSameGraph(g, loaded);
+    }
+
+    @Test
+    void dimacs() throws IOException {
+        String file = file("road.gr", "c a road network\r\nc\r\np sp 4 5\r\na 1 2 7\r\na 2 1 7\r\na 2 3 1\r\n\r\na 3 2 2\r\na 1 3 100\r\n");
+        WGraph_DS g = EdgeListFormat.readDimacs(file);
+        assertEquals(4, g.nodeSize());// vertex 4 has no arcs
+        assertEquals(3, g.edgeSize());
+        assertEquals(7, g.getEdge(1, 2));
+        assertEquals(2, g.getEdge(2, 3));// the last arc wins
+        assertEquals(100, g.getEdge(3, 1));
+    }
+
+    @Test
+    void numbers() throws IOException {
+        String file = file("n.csv", "from,to,weight\n# comment\n1,2,0.1\n 2 , 3 , 1e-3\n3,4,-0\n4,5,12345678901234567890.5\n"
+                + "5,6,0.000000000000000000000001\n6,7,1.7976931348623157E308\n7,8,3.14159265358979323846\n-8,9,+2.\n");
+        WGraph_DS g = EdgeListFormat.readCSV(file);
+        assertEquals(0.1, g.getEdge(1, 2));
+        assertEquals(1e-3, g.getEdge(2, 3));
+        assertEquals(0, g.getEdge(3, 4), 0);
+        assertEquals(12345678901234567890.5, g.getEdge(4, 5));
+        assertEquals(1e-24, g.getEdge(5, 6));
+        assertEquals(Double.MAX_VALUE, g.getEdge(6, 7));
+        assertEquals(Math.PI, g.getEdge(7, 8));
+        assertEquals(2, g.getEdge(-8, 9));
+    }
+
+    @Test
+    void errors() throws IOException {
+        IOException e = assertThrows(IOException.class, () -> EdgeListFormat.readCSV(file("a.csv", "1,2,3\n1,2\n")));
+        assertTrue(e.getMessage().endsWith("a.csv:2: expected ','"), e.getMessage());
+        e = assertThrows(IOException.class, () -> EdgeListFormat.readCSV(file("b.csv", "1,2,3\n\n1,x,3\n")));
+        assertTrue(e.getMessage().endsWith("b.csv:3: expected an integer"), e.getMessage());
+        e = assertThrows(IOException.class, () -> EdgeListFormat.readCSV(file("c.csv", "1,2,3x\n")));
+        assertTrue(e.getMessage().endsWith("c.csv:1: expected a number"), e.getMessage());
+        e = assertThrows(IOException.class, () -> EdgeListFormat.readDimacs(file("d.gr", "p sp 2 1\nx 1 2 3\n")));
+        assertTrue(e.getMessage().endsWith("d.gr:2: unknown line type 'x'"), e.getMessage());
+        e = assertThrows(IOException.class, () -> EdgeListFormat.readDimacs(file("e.gr", "a 1 99999999999 3\n")));
+        assertTrue(e.getMessage().endsWith("e.gr:1: integer out of range"), e.getMessage());
+    }
+}
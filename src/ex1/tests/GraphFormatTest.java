@@ -0,0 +1,193 @@
+package ex1.tests;
+
+import ex1.src.GraphFormat;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphFormatTest {
+
+    @TempDir
+    Path dir;
+
+    static void assertSameGraph(weighted_graph expected, weighted_graph actual) {
+        assertEquals(expected.nodeSize(), actual.nodeSize());
+        assertEquals(expected.edgeSize(), actual.edgeSize());
+        for (node_info n : expected.getV()) {
+            node_info m = actual.getNode(n.getKey());
+            assertNotNull(m);
+            assertEquals(n.getInfo(), m.getInfo());
+            assertEquals(expected.getV(n.getKey()).size(), actual.getV(n.getKey()).size());
+            for (node_info u : expected.getV(n.getKey())) {
+                assertEquals(expected.getEdge(n.getKey(), u.getKey()), actual.getEdge(n.getKey(), u.getKey()));
+            }
+        }
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(500, 3000, 1);
+        g.addNode(-7);// an isolated vertex with a negative key
+        g.getNode(3).setInfo("3,4");
+        g.getNode(4).setInfo("\u05e9\u05dc\u05d5\u05dd");
+        String file = dir.resolve("g.wgr").toString();
+        GraphFormat.write(g, file);
+        assertTrue(GraphFormat.isGraphFile(file));
+
+        WGraph_DS ds = GraphFormat.read(file);
+        assertSameGraph(g, ds);
+        assertEquals(g.getMC(), ds.getMC());
+        ds.connect(-7, 0, 1);// a regular mutable graph
+        assertEquals(1, ds.getEdge(0, -7));
+
+        WGraph_CSR csr = GraphFormat.readCSR(file);
+        assertSameGraph(g, csr);
+        assertEquals(g.getMC(), csr.getMC());
+    }
+
+    @Test
+    void emptyGraph() throws IOException {
+        String file = dir.resolve("empty.wgr").toString();
+        GraphFormat.write(new WGraph_DS(), file);
+        assertEquals(0, GraphFormat.read(file).nodeSize());
+    }
+
+    @Test
+    void saveLoad() {
+        weighted_graph g = WGraph_DSTest.graph_creator(100, 400, 2);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        String file = dir.resolve("g.wgr").toString();
+        assertTrue(algo.save(file));
+        WGraph_Algo loaded = new WGraph_Algo();
+        assertTrue(loaded.load(file));
+        assertSameGraph(g, loaded.getGraph());
+        assertEquals(algo.shortestPathDist(0, 99), loaded.shortestPathDist(0, 99));
+    }
+
+    @Test
+    void loadJavaSerialization() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(50, 100, 3);
+        String file = dir.resolve("g.obj").toString();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
+            oos.writeObject(g);
+        }
+        assertFalse(GraphFormat.isGraphFile(file));
+        WGraph_Algo algo = new WGraph_Algo();
+        assertTrue(algo.load(file));
+        assertSameGraph(g, algo.getGraph());
+    }
+
+    @Test
+    void map() throws IOException, ClassNotFoundException {
+        weighted_graph g = WGraph_DSTest.graph_creator(300, 1500, 5);
+        g.getNode(7).setInfo("seven");
+        String file = dir.resolve("g.wgr").toString();
+        GraphFormat.write(g, file);
+        WGraph_CSR mapped = GraphFormat.map(file);
+        assertSameGraph(g, mapped);
+        assertEquals(g.getMC(), mapped.getMC());
+        assertThrows(UnsupportedOperationException.class, () -> mapped.connect(0, 1, 1));
+        mapped.getNode(8).setTag(3);// the tags and infos are kept on the heap
+        mapped.getNode(8).setInfo("eight");
+        assertEquals(3, mapped.getNode(8).getTag());
+        assertEquals("eight", mapped.getNode(8).getInfo());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(mapped);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSameGraph(mapped, (weighted_graph) ois.readObject());
+        }
+
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        WGraph_Algo loaded = new WGraph_Algo();
+        assertTrue(loaded.loadMapped(file));
+        assertTrue(loaded.getGraph() instanceof WGraph_CSR);
+        for (int dest = 0; dest < 300; dest += 7) {
+            assertEquals(algo.shortestPathDist(0, dest), loaded.shortestPathDist(0, dest));
+            List<node_info> path = loaded.shortestPath(0, dest);
+            List<node_info> expected = algo.shortestPath(0, dest);
+            assertEquals(expected == null, path == null);
+        }
+        assertEquals(algo.isConnected(), loaded.isConnected());
+        assertFalse(loaded.loadMapped(dir.resolve("missing.wgr").toString()));
+    }
+
+    @Test
+    void brokenFiles() throws IOException {
+        weighted_graph g = WGraph_DSTest.graph_creator(50, 100, 4);
+        String file = dir.resolve("g.wgr").toString();
+        GraphFormat.write(g, file);
+
+        String truncated = dir.resolve("truncated.wgr").toString();
+        GraphFormat.write(g, truncated);
+        try (RandomAccessFile f = new RandomAccessFile(truncated, "rw")) {
+            f.setLength(f.length() / 2);
+        }
+        IOException e = assertThrows(IOException.class, () -> GraphFormat.read(truncated));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+
+        String version = dir.resolve("version.wgr").toString();
+        GraphFormat.write(g, version);
+        try (RandomAccessFile f = new RandomAccessFile(version, "rw")) {
+            f.seek(4);
+            f.write(99);
+        }
+        e = assertThrows(IOException.class, () -> GraphFormat.read(version));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+
+        String corrupt = dir.resolve("corrupt.wgr").toString();
+        GraphFormat.write(g, corrupt);
+        try (RandomAccessFile f = new RandomAccessFile(corrupt, "rw")) {
+            f.seek(32 + 4 * (50 + 51));// the first target
+            f.write(new byte[]{(byte) 200, 0, 0, 0});
+        }
+        e = assertThrows(IOException.class, () -> GraphFormat.read(corrupt));
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+
+        // a header alone, whose sizes overflow an int
+        String huge = dir.resolve("huge.wgr").toString();
+        ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x46524757).putInt(1).putInt(Integer.MAX_VALUE).putInt(0);
+        Files.write(Paths.get(huge), header.array());
+        e = assertThrows(IOException.class, () -> GraphFormat.read(huge));
+        assertTrue(e.getMessage().contains("corrupt header"), e.getMessage());
+        header.putInt(8, 1 << 30);// 2n + 1 overflows
+        Files.write(Paths.get(huge), header.array());
+        e = assertThrows(IOException.class, () -> GraphFormat.read(huge));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+        assertThrows(IOException.class, () -> GraphFormat.map(huge));
+
+        WGraph_Algo algo = new WGraph_Algo();
+        weighted_graph before = new WGraph_DS();
+        algo.init(before);
+        assertFalse(algo.load(corrupt));
+        assertFalse(algo.load(huge));
+        assertFalse(algo.load(dir.resolve("missing.wgr").toString()));
+        assertSame(before, algo.getGraph());// the graph remains "as is"
+        assertTrue(algo.load(file));
+    }
+}
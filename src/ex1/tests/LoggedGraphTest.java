@@ -0,0 +1,174 @@
+package ex1.tests;
+
+import ex1.src.LoggedGraph;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_DS;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggedGraphTest {
+
+    @TempDir
+    Path dir;
+
+    private String snapshot() {
+        return dir.resolve("g.wgr").toString();
+    }
+
+    private String log() {
+        return dir.resolve("g.log").toString();
+    }
+
+    /**
+     * Applies the same random changes to both graphs.
+     */
+    private static void randomChanges(weighted_graph g, weighted_graph expected, int count, int seed) {
+        Random rnd = new Random(seed);
+        int v = 80;
+        for (int i = 0; i < count; i++) {
+            int a = rnd.nextInt(v), b = rnd.nextInt(v);
+            switch (rnd.nextInt(6)) {
+                case 0: g.addNode(a); expected.addNode(a); break;
+                case 1: g.removeNode(a); expected.removeNode(a); break;
+                case 2: g.removeEdge(a, b); expected.removeEdge(a, b); break;
+                case 3:
+                    if (g.getNode(a) != null) {
+                        g.getNode(a).setInfo("info " + i);
+                        expected.getNode(a).setInfo("info " + i);
+                    }
+                    break;
+                default:
+                    double w = rnd.nextInt(100) / 4.0;
+                    g.connect(a, b, w);
+                    expected.connect(a, b, w);
+            }
+        }
+    }
+
+    @Test
+    void replay() throws IOException {
+        WGraph_DS expected = new WGraph_DS();
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            g.setAutoCompact(false);
+            randomChanges(g, expected, 3000, 1);
+            assertTrue(g.logSize() > 0);
+        }
+        assertFalse(Files.exists(dir.resolve("g.wgr")));
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            GraphFormatTest.assertSameGraph(expected, g);
+            randomChanges(g, expected, 3000, 2);
+            g.compact();
+            assertEquals(0, g.logSize());
+            randomChanges(g, expected, 100, 3);
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            GraphFormatTest.assertSameGraph(expected, g);
+            assertTrue(g.logSize() > 0 && g.logSize() <= 100);
+            WGraph_Algo algo = new WGraph_Algo();
+            algo.init(g);
+            WGraph_Algo reference = new WGraph_Algo();
+            reference.init(expected);
+            assertEquals(reference.shortestPathDist(1, 2), algo.shortestPathDist(1, 2));
+        }
+    }
+
+    @Test
+    void autoCompact() throws IOException {
+        WGraph_DS expected = new WGraph_DS();
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            randomChanges(g, expected, 5000, 4);
+            assertTrue(Files.exists(dir.resolve("g.wgr")));
+            assertTrue(g.logSize() <= Math.max(1024, g.nodeSize() + g.edgeSize()));
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            GraphFormatTest.assertSameGraph(expected, g);
+        }
+    }
+
+    @Test
+    void tornRecord() throws IOException {
+        WGraph_DS expected = new WGraph_DS();
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            randomChanges(g, expected, 500, 5);
+            g.addNode(1000);
+            g.addNode(1001);
+            g.connect(1000, 1001, 3);
+        }
+        try (RandomAccessFile f = new RandomAccessFile(log(), "rw")) {
+            f.setLength(f.length() - 5);// the connect record was cut by a crash
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            expected.addNode(1000);
+            expected.addNode(1001);
+            GraphFormatTest.assertSameGraph(expected, g);
+            g.connect(1000, 1001, 4);
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            assertEquals(4, g.getEdge(1000, 1001));
+        }
+    }
+
+    @Test
+    void staleLog() throws IOException {
+        WGraph_DS expected = new WGraph_DS();
+        Path copy = dir.resolve("old.log");
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            g.setAutoCompact(false);
+            randomChanges(g, expected, 500, 6);
+            g.flush();
+            Files.copy(dir.resolve("g.log"), copy);
+            g.compact();
+        }
+        // a crash after the new snapshot replaced the old one, before the log was emptied
+        Files.copy(copy, dir.resolve("g.log"), StandardCopyOption.REPLACE_EXISTING);
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            assertEquals(0, g.logSize());
+            GraphFormatTest.assertSameGraph(expected, g);
+        }
+    }
+
+    @Test
+    void modeCountAndNullInfo() throws IOException {
+        int mc;
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            g.setAutoCompact(false);
+            randomChanges(g, new WGraph_DS(), 500, 7);
+            g.addNode(1000);
+            g.getNode(1000).setInfo(null);
+            g.compact();
+            g.addNode(1001);
+            g.getNode(1001).setInfo(null);
+            mc = g.getMC();
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            assertEquals(mc, g.getMC());// the snapshot's mode count, plus the replayed changes
+            assertNull(g.getNode(1000).getInfo());
+            assertNull(g.getNode(1001).getInfo());
+            g.compact();
+            g.addNode(1002);
+            mc = g.getMC();
+        }
+        try (LoggedGraph g = LoggedGraph.open(snapshot(), log())) {
+            assertEquals(mc, g.getMC());
+            assertNull(g.getNode(1001).getInfo());
+            assertEquals("", g.getNode(1002).getInfo());
+        }
+    }
+
+    @Test
+    void notALog() throws IOException {
+        Files.write(dir.resolve("g.log"), "hello world, this is not a log".getBytes());
+        IOException e = assertThrows(IOException.class, () -> LoggedGraph.open(snapshot(), log()));
+        assertTrue(e.getMessage().contains("not a graph log"), e.getMessage());
+    }
+}
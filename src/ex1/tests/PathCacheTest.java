@@ -0,0 +1,117 @@
+package ex1.tests;
+
+import ex1.src.PathCache;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathCacheTest {
+
+    @Test
+    void hitsAndMisses() {
+        weighted_graph g = WGraph_DSTest.graph_creator(200, 800, 1);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        assertNull(algo.getCache());
+        double expected = algo.shortestPathDist(0, 150);
+        List<node_info> expectedPath = algo.shortestPath(0, 150);
+
+        algo.enableCache(10);
+        PathCache cache = algo.getCache();
+        assertEquals(expected, algo.shortestPathDist(0, 150));
+        assertEquals(expected, algo.shortestPathDist(0, 150));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        assertEquals(expectedPath, algo.shortestPath(0, 150));// the distance alone doesn't answer for the path
+        List<node_info> path = algo.shortestPath(0, 150);
+        assertEquals(expectedPath, path);
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        path.clear();// the caller's copy
+        assertEquals(expectedPath, algo.shortestPath(0, 150));
+        assertEquals(expected, algo.shortestPathDist(0, 150));
+
+        // trivial queries don't touch the cache
+        assertEquals(0, algo.shortestPathDist(5, 5));
+        assertEquals(-1, algo.shortestPathDist(5, 1000));
+        assertEquals(4, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.size());
+        assertEquals(4.0 / 6, cache.hitRate());
+
+        algo.enableCache(0);
+        assertNull(algo.getCache());
+    }
+
+    @Test
+    void noPath() {
+        WGraph_DS g = new WGraph_DS();
+        g.addNode(1);
+        g.addNode(2);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        algo.enableCache(4);
+        assertNull(algo.shortestPath(1, 2));
+        assertNull(algo.shortestPath(1, 2));
+        assertEquals(-1, algo.shortestPathDist(1, 2));
+        assertEquals(2, algo.getCache().hitCount());
+    }
+
+    @Test
+    void eviction() {
+        weighted_graph g = WGraph_DSTest.graph_creator(100, 300, 2);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        algo.enableCache(3);
+        PathCache cache = algo.getCache();
+        algo.shortestPathDist(0, 1);
+        algo.shortestPathDist(0, 2);
+        algo.shortestPathDist(0, 3);
+        algo.shortestPathDist(0, 1);// (0, 1) is now the most recently used
+        algo.shortestPathDist(0, 4);// evicts (0, 2)
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.size());
+        long misses = cache.missCount();
+        algo.shortestPathDist(0, 1);
+        algo.shortestPathDist(0, 3);
+        assertEquals(misses, cache.missCount());
+        algo.shortestPathDist(0, 2);
+        assertEquals(misses + 1, cache.missCount());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    void invalidation() {
+        WGraph_DS g = new WGraph_DS();
+        for (int i = 0; i < 4; i++) g.addNode(i);
+        g.connect(0, 1, 1);
+        g.connect(1, 2, 1);
+        g.connect(2, 3, 1);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        algo.enableCache(10);
+        PathCache cache = algo.getCache();
+        assertEquals(3, algo.shortestPathDist(0, 3));
+        assertEquals(4, algo.shortestPath(0, 3).size());
+
+        g.connect(0, 3, 1.5);// the graph changes, so the cached results are dropped
+        assertEquals(1.5, algo.shortestPathDist(0, 3));
+        assertEquals(2, algo.shortestPath(0, 3).size());
+        assertEquals(1, cache.invalidationCount());
+        assertEquals(0, cache.hitCount());
+
+        WGraph_DS other = new WGraph_DS();
+        other.addNode(0);
+        other.addNode(3);
+        algo.init(other);
+        assertEquals(-1, algo.shortestPathDist(0, 3));
+        assertEquals(2, cache.invalidationCount());
+    }
+}
@@ -0,0 +1,70 @@
+package ex1.tests;
+
+import ex1.src.ShortestPathTree;
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathTreeTest {
+
+    @Test
+    void smallGraph() {
+        WGraph_DS g = new WGraph_DS();
+        for (int i = 0; i < 6; i++) g.addNode(i);
+        g.connect(0, 1, 4);
+        g.connect(0, 2, 1);
+        g.connect(2, 1, 2);
+        g.connect(1, 3, 5);
+        ShortestPathTree tree = new ShortestPathTree(WGraph_CSR.of(g), 0);
+        assertEquals(0, tree.getSource());
+        assertEquals(8, tree.distTo(3));
+        assertEquals(-1, tree.distTo(5));
+        assertEquals(-1, tree.distTo(42));
+        assertFalse(tree.hasPathTo(5));
+        assertTrue(tree.hasPathTo(3));
+        int[] keys = tree.pathTo(3).stream().mapToInt(node_info::getKey).toArray();
+        assertArrayEquals(new int[]{0, 2, 1, 3}, keys);
+        assertTrue(tree.pathTo(0).isEmpty());
+        assertNull(tree.pathTo(5));
+        assertNull(tree.pathTo(42));
+        assertArrayEquals(new int[]{-1, 2, 0, 1, -1, -1}, tree.predecessors());
+
+        ShortestPathTree missing = new ShortestPathTree(WGraph_CSR.of(g), 42);
+        assertEquals(-1, missing.distTo(0));
+        assertNull(missing.pathTo(0));
+    }
+
+    @Test
+    void algo() {
+        weighted_graph g = WGraph_DSTest.graph_creator(500, 2000, 8);
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(g);
+        ShortestPathTree tree = algo.shortestPathTree(3);
+        for (int dest = 0; dest < 500; dest++) {
+            assertEquals(algo.shortestPathDist(3, dest), tree.distTo(dest), 1e-9);
+            List<node_info> expected = algo.shortestPath(3, dest), path = tree.pathTo(dest);
+            assertEquals(expected == null, path == null);
+            if (path == null) continue;
+            if (dest != 3) {
+                assertEquals(3, path.get(0).getKey());
+                assertEquals(dest, path.get(path.size() - 1).getKey());
+            }
+            double sum = 0;
+            for (int i = 1; i < path.size(); i++) sum += g.getEdge(path.get(i - 1).getKey(), path.get(i).getKey());
+            assertEquals(tree.distTo(dest), sum, 1e-9);
+            for (node_info n : path) assertSame(g.getNode(n.getKey()), n);// the nodes of the graph itself
+        }
+        assertNull(algo.shortestPathTree(1000));
+
+        g.removeNode(3);// the tree stays valid for the graph it was built for
+        assertEquals(0, tree.distTo(3));
+        assertNull(algo.shortestPathTree(3));
+    }
+}
@@ -1,11 +1,18 @@
 package ex1.tests;
 
+import ex1.src.BidirectionalDijkstra;
+import ex1.src.DijkstraEngine;
+import ex1.src.Landmarks;
 import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
 import ex1.src.node_info;
 import ex1.src.weighted_graph;
 import ex1.src.weighted_graph_algorithms;
 import org.junit.jupiter.api.Test;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntToDoubleFunction;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class WGraph_AlgoTest {
@@ -67,6 +74,264 @@ public class WGraph_AlgoTest {
             }
         }
 
+        @Test
+        void shortestPathNoPath() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(4,0,1);
+            g0.connect(0,1,2);
+            g0.connect(2,3,1);
+            weighted_graph_algorithms ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            assertEquals(-1, ag0.shortestPathDist(0,3));
+            assertNull(ag0.shortestPath(0,3));
+            assertNull(ag0.shortestPath(0,7));
+            assertEquals(0, ag0.shortestPath(1,1).size());
+            g0.connect(1,2,0.5);// the graph changed after the last query
+            assertEquals(3.5, ag0.shortestPathDist(0,3));
+            assertEquals(4, ag0.shortestPath(0,3).size());
+        }
+
+        @Test
+        void shortestPathRandom() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(60,200,3);
+            weighted_graph_algorithms ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            double[][] expected = allPairs(g0, 60);
+            for (int src = 0; src < 60; src++) {
+                for (int dest = 0; dest < 60; dest++) {
+                    double d = ag0.shortestPathDist(src, dest);
+                    if (expected[src][dest] == Double.POSITIVE_INFINITY) {
+                        assertEquals(-1, d);
+                        continue;
+                    }
+                    assertEquals(expected[src][dest], d, 1e-9);
+                    List<node_info> sp = ag0.shortestPath(src, dest);
+                    double sum = 0;
+                    for (int i = 1; i < sp.size(); i++) {
+                        sum += g0.getEdge(sp.get(i - 1).getKey(), sp.get(i).getKey());
+                    }
+                    assertEquals(d, sum, 1e-9);
+                }
+            }
+        }
+
+        @Test
+        void earlyTermination() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(100,0,1);
+            for (int i = 1; i < 100; i++) {
+                g0.connect(i - 1, i, 1);
+            }
+            DijkstraEngine engine = new DijkstraEngine(WGraph_CSR.of(g0));
+            assertEquals(5, engine.distance(0, 5));
+            assertEquals(6, engine.settledCount());
+            engine.run(0);
+            assertEquals(100, engine.settledCount());
+            assertEquals(99, engine.dist(99));
+        }
+
+        @Test
+        void bidirectional() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(60,200,3);
+            WGraph_Algo ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            double[][] expected = allPairs(g0, 60);
+            for (int src = 0; src < 60; src++) {
+                for (int dest = 0; dest < 60; dest++) {
+                    double d = ag0.shortestPathDistBidirectional(src, dest);
+                    assertEquals(expected[src][dest] == Double.POSITIVE_INFINITY ? -1 : expected[src][dest], d, 1e-9);
+                    List<node_info> sp = ag0.shortestPathBidirectional(src, dest);
+                    if (d == -1) {
+                        assertNull(sp);
+                        continue;
+                    }
+                    if (src != dest) {
+                        assertEquals(src, sp.get(0).getKey());
+                        assertEquals(dest, sp.get(sp.size() - 1).getKey());
+                    }
+                    double sum = 0;
+                    for (int i = 1; i < sp.size(); i++) {
+                        sum += g0.getEdge(sp.get(i - 1).getKey(), sp.get(i).getKey());
+                    }
+                    assertEquals(d, sum, 1e-9);
+                }
+            }
+        }
+
+        /**
+         * Compares the number of vertices settled by the one sided and the bidirectional searches
+         * over random queries on graph_creator graphs.
+         */
+        @Test
+        void bidirectionalSettledCount() {
+            int v = 20000;
+            WGraph_CSR g = WGraph_CSR.of(WGraph_DSTest.graph_creator(v, 3 * v, 5));
+            DijkstraEngine dijkstra = new DijkstraEngine(g);
+            BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(g);
+            Random rnd = new Random(1);
+            long oneSided = 0, twoSided = 0;
+            for (int q = 0; q < 200; q++) {
+                int src = rnd.nextInt(v), dest = rnd.nextInt(v);
+                assertEquals(dijkstra.distance(src, dest), bidirectional.run(src, dest), 1e-9);
+                oneSided += dijkstra.settledCount();
+                twoSided += bidirectional.settledCount();
+            }
+            assertTrue(twoSided * 10 < oneSided, "bidirectional settled " + twoSided + " of " + oneSided);// under 10%
+        }
+
+        @Test
+        void aStar() {
+            int side = 30;
+            weighted_graph g0 = WGraph_DSTest.graph_creator(side * side,0,1);
+            Random rnd = new Random(2);
+            for (int x = 0; x < side; x++) {
+                for (int y = 0; y < side; y++) {
+                    int key = x * side + y;
+                    g0.getNode(key).setInfo(x + "," + y);
+                    if (x + 1 < side) g0.connect(key, key + side, 1 + rnd.nextDouble());
+                    if (y + 1 < side) g0.connect(key, key + 1, 1 + rnd.nextDouble());
+                }
+            }
+            WGraph_Algo ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            for (int q = 0; q < 50; q++) {
+                int src = rnd.nextInt(side * side), dest = rnd.nextInt(side * side);
+                double d = ag0.shortestPathDist(src, dest);
+                assertEquals(d, ag0.shortestPathDist(src, dest, ag0.coordinateHeuristic(dest)), 1e-9);
+                assertEquals(d, ag0.shortestPathDist(src, dest, null), 1e-9);
+                List<node_info> sp = ag0.shortestPath(src, dest, ag0.coordinateHeuristic(dest));
+                double sum = 0;
+                for (int i = 1; i < sp.size(); i++) {
+                    sum += g0.getEdge(sp.get(i - 1).getKey(), sp.get(i).getKey());
+                }
+                assertEquals(d, sum, 1e-9);
+            }
+
+            WGraph_CSR g = WGraph_CSR.of(g0);
+            DijkstraEngine engine = new DijkstraEngine(g);
+            int src = g.indexOf(0), dest = g.indexOf(side * side - 1);
+            engine.run(src, dest);
+            int dijkstra = engine.settledCount();
+            IntToDoubleFunction h = ag0.coordinateHeuristic(side * side - 1);
+            engine.run(src, dest, i -> h.applyAsDouble(g.keyAt(i)));
+            assertTrue(engine.settledCount() <= dijkstra);
+        }
+
+        @Test
+        void landmarks() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(60,150,4);
+            WGraph_Algo ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            ag0.preprocessLandmarks(4);
+            double[][] expected = allPairs(g0, 60);
+            for (int src = 0; src < 60; src++) {
+                for (int dest = 0; dest < 60; dest++) {
+                    double d = ag0.shortestPathDist(src, dest);
+                    assertEquals(expected[src][dest] == Double.POSITIVE_INFINITY ? -1 : expected[src][dest], d, 1e-9);
+                }
+            }
+            g0.removeEdge(0, ag0.shortestPath(0, 59).get(1).getKey());// invalidates the landmarks
+            expected = allPairs(g0, 60);
+            assertEquals(expected[0][59] == Double.POSITIVE_INFINITY ? -1 : expected[0][59], ag0.shortestPathDist(0, 59), 1e-9);
+
+            WGraph_CSR g = WGraph_CSR.of(WGraph_DSTest.graph_creator(5000, 15000, 6));
+            Landmarks landmarks = new Landmarks(g, 8);
+            assertEquals(8, landmarks.getLandmarks().length);
+            DijkstraEngine engine = new DijkstraEngine(g);
+            Random rnd = new Random(3);
+            long dijkstra = 0, alt = 0;
+            for (int q = 0; q < 100; q++) {
+                int src = rnd.nextInt(5000), dest = rnd.nextInt(5000);
+                double d = engine.distance(src, dest);
+                dijkstra += engine.settledCount();
+                engine.run(src, dest, landmarks.heuristic(dest));
+                alt += engine.settledCount();
+                assertEquals(d, engine.dist(dest), 1e-9);
+            }
+            assertTrue(alt * 4 < dijkstra * 3, "ALT settled " + alt + " of " + dijkstra);// under 75%
+        }
+
+        @Test
+        void distanceMatrix() {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(80,200,5);
+            WGraph_Algo ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            double[][] expected = allPairs(g0, 80);
+            int[] sources = {0, 5, 17, 79, 100, 5};
+            int[] targets = {3, 0, 79, 42, 100, 17, 5};
+            double[][] m = ag0.distanceMatrix(sources, targets);
+            assertEquals(sources.length, m.length);
+            for (int i = 0; i < sources.length; i++) {
+                assertEquals(targets.length, m[i].length);
+                for (int j = 0; j < targets.length; j++) {
+                    if (sources[i] >= 80 || targets[j] >= 80) {
+                        assertEquals(-1, m[i][j]);
+                        continue;
+                    }
+                    double e = expected[sources[i]][targets[j]];
+                    assertEquals(e == Double.POSITIVE_INFINITY ? -1 : e, m[i][j], 1e-9);
+                }
+            }
+            assertEquals(0, ag0.distanceMatrix(new int[0], targets).length);
+        }
+
+        @Test
+        void concurrentQueries() throws InterruptedException {
+            weighted_graph g0 = WGraph_DSTest.graph_creator(200,600,11);
+            for (node_info n : g0.getV()) {
+                n.setTag(7);
+            }
+            WGraph_Algo ag0 = new WGraph_Algo();
+            ag0.init(g0);
+            double[][] expected = allPairs(g0, 200);
+            boolean connected = ag0.isConnected();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                int seed = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        Random rnd = new Random(seed);
+                        for (int q = 0; q < 500; q++) {
+                            int src = rnd.nextInt(200), dest = rnd.nextInt(200);
+                            double e = expected[src][dest] == Double.POSITIVE_INFINITY ? -1 : expected[src][dest];
+                            assertEquals(e, ag0.shortestPathDist(src, dest), 1e-9);
+                            assertEquals(e, ag0.shortestPathDistBidirectional(src, dest), 1e-9);
+                            assertEquals(connected, ag0.isConnected());
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);// failed with the first one after the join
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            if (failure.get() != null) fail(failure.get());
+            for (node_info n : g0.getV()) {
+                assertEquals(7, n.getTag());// the algorithms don't use the tags
+            }
+        }
+
+        /**
+         * Floyd-Warshall over the keys 0..n-1, used to check the results of the shortest path algorithms.
+         */
+        static double[][] allPairs(weighted_graph g, int n) {
+            double[][] d = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    d[i][j] = i == j ? 0 : g.hasEdge(i, j) ? g.getEdge(i, j) : Double.POSITIVE_INFINITY;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        if (d[i][k] + d[k][j] < d[i][j]) d[i][j] = d[i][k] + d[k][j];
+                    }
+                }
+            }
+            return d;
+        }
+
         @Test
         void save_load() {
             weighted_graph g0 = WGraph_DSTest.graph_creator(10,30,1);
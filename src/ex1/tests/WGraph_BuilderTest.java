@@ -0,0 +1,107 @@
+package ex1.tests;
+
+import ex1.src.WGraph_Builder;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WGraph_BuilderTest {
+
+    /**
+     * Adds the same random edges (with duplicates and self loops) to a builder and,
+     * by connect, to a WGraph_DS.
+     */
+    private static WGraph_Builder randomEdges(WGraph_DS expected, int v, int e, int seed) {
+        Random rnd = new Random(seed);
+        WGraph_Builder builder = new WGraph_Builder(v, e);
+        for (int i = 0; i < v; i++) {
+            int key = i * 3 - 50;// negative and sparse keys
+            builder.addNode(key);
+            expected.addNode(key);
+        }
+        int[] a = new int[e], b = new int[e];
+        double[] w = new double[e];
+        for (int i = 0; i < e; i++) {
+            a[i] = rnd.nextInt(v) * 3 - 50;
+            b[i] = rnd.nextInt(v) * 3 - 50;
+            w[i] = rnd.nextInt(20);
+            expected.connect(a[i], b[i], w[i]);
+        }
+        return builder.addEdges(a, b, w);
+    }
+
+    private static void assertSameGraph(weighted_graph expected, weighted_graph actual) {
+        assertEquals(expected.nodeSize(), actual.nodeSize());
+        assertEquals(expected.edgeSize(), actual.edgeSize());
+        for (node_info n : expected.getV()) {
+            assertNotNull(actual.getNode(n.getKey()));
+            assertEquals(expected.getV(n.getKey()).size(), actual.getV(n.getKey()).size());
+            for (node_info u : expected.getV(n.getKey())) {
+                assertEquals(expected.getEdge(n.getKey(), u.getKey()), actual.getEdge(n.getKey(), u.getKey()));
+                assertEquals(expected.getEdge(n.getKey(), u.getKey()), actual.getEdge(u.getKey(), n.getKey()));
+            }
+        }
+    }
+
+    @Test
+    void build() {
+        WGraph_DS expected = new WGraph_DS();
+        WGraph_Builder builder = randomEdges(expected, 300, 3000, 1);
+        WGraph_DS g = builder.build();
+        assertSameGraph(expected, g);
+        g.connect(-50, -47, 100);// the built graph is a regular WGraph_DS
+        assertEquals(100, g.getEdge(-47, -50));
+        g.removeNode(-50);
+        assertEquals(expected.nodeSize() - 1, g.nodeSize());
+    }
+
+    @Test
+    void buildCSR() {
+        WGraph_DS expected = new WGraph_DS();
+        WGraph_CSR g = randomEdges(expected, 300, 3000, 2).buildCSR();
+        assertSameGraph(expected, g);
+        assertEquals(g.nodeSize() + g.edgeSize(), g.getMC());
+    }
+
+    @Test
+    void lastWeightWins() {
+        WGraph_DS g = new WGraph_Builder()
+                .addEdge(1, 2, 5)
+                .addEdge(2, 1, 3)
+                .addEdge(1, 2, 4)
+                .addEdge(3, 3, 1)
+                .addEdge(3, 4, -1)
+                .build();
+        assertEquals(2, g.nodeSize());// endpoints are added as vertices, ignored edges add nothing
+        assertEquals(1, g.edgeSize());
+        assertEquals(4, g.getEdge(2, 1));
+        assertNull(g.getNode(3));
+    }
+
+    @Test
+    void stream() {
+        int v = 100;
+        WGraph_DS g = new WGraph_Builder()
+                .addEdges(IntStream.range(0, v).boxed(), i -> i, i -> (i + 1) % v, i -> i)
+                .build();
+        assertEquals(v, g.nodeSize());
+        assertEquals(v, g.edgeSize());
+        assertEquals(v - 1, g.getEdge(0, v - 1));
+        assertEquals(2, g.getV(50).size());
+    }
+
+    @Test
+    void empty() {
+        assertEquals(0, new WGraph_Builder().build().nodeSize());
+        WGraph_CSR g = new WGraph_Builder().addNodes(new int[]{5, 5, 7}).buildCSR();
+        assertEquals(2, g.nodeSize());
+        assertEquals(0, g.edgeSize());
+    }
+}
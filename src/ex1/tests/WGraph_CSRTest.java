@@ -0,0 +1,93 @@
+package ex1.tests;
+
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_DS;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import ex1.src.weighted_graph_algorithms;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WGraph_CSRTest {
+
+    @Test
+    void freeze() {
+        WGraph_DS g = (WGraph_DS) WGraph_DSTest.graph_creator(100, 400, 1);
+        WGraph_CSR csr = g.freeze();
+        assertEquals(g.nodeSize(), csr.nodeSize());
+        assertEquals(g.edgeSize(), csr.edgeSize());
+        assertEquals(g.getMC(), csr.getMC());
+        for (node_info n : g.getV()) {
+            assertEquals(g.getV(n.getKey()).size(), csr.getV(n.getKey()).size());
+            for (node_info neighbor : g.getV(n.getKey())) {
+                assertTrue(csr.hasEdge(n.getKey(), neighbor.getKey()));
+                assertEquals(g.getEdge(n.getKey(), neighbor.getKey()), csr.getEdge(neighbor.getKey(), n.getKey()));
+            }
+        }
+        assertNull(csr.getNode(100));
+        assertFalse(csr.hasEdge(0, 100));
+        assertEquals(-1, csr.getEdge(3, 3));
+    }
+
+    @Test
+    void snapshotIsIndependent() {
+        WGraph_DS g = (WGraph_DS) WGraph_DSTest.graph_creator(4, 0, 1);
+        g.connect(0, 1, 1);
+        g.connect(1, 2, 2);
+        WGraph_CSR csr = g.freeze();
+        g.removeEdge(0, 1);
+        g.addNode(7);
+        assertTrue(csr.hasEdge(0, 1));
+        assertNull(csr.getNode(7));
+        assertEquals(4, csr.nodeSize());
+        assertEquals(2, csr.edgeSize());
+    }
+
+    @Test
+    void immutable() {
+        WGraph_CSR csr = ((WGraph_DS) WGraph_DSTest.graph_creator(3, 2, 1)).freeze();
+        assertThrows(UnsupportedOperationException.class, () -> csr.addNode(5));
+        assertThrows(UnsupportedOperationException.class, () -> csr.connect(0, 2, 1));
+        assertThrows(UnsupportedOperationException.class, () -> csr.removeNode(0));
+        assertThrows(UnsupportedOperationException.class, () -> csr.removeEdge(0, 1));
+        csr.getNode(1).setInfo("1,2");
+        assertEquals("1,2", csr.getNode(1).getInfo());
+    }
+
+    @Test
+    void algorithms() {
+        WGraph_DS g = (WGraph_DS) WGraph_DSTest.graph_creator(11, 0, 1);
+        g.connect(0, 1, 1);
+        g.connect(0, 2, 2);
+        g.connect(0, 3, 3);
+        g.connect(1, 4, 17);
+        g.connect(1, 5, 1);
+        g.connect(2, 4, 1);
+        g.connect(3, 5, 10);
+        g.connect(3, 6, 100);
+        g.connect(5, 7, 1.1);
+        g.connect(6, 7, 10);
+        g.connect(7, 10, 2);
+        g.connect(6, 8, 30);
+        g.connect(8, 10, 10);
+        g.connect(4, 10, 30);
+        g.connect(3, 9, 10);
+        weighted_graph_algorithms ag = new WGraph_Algo();
+        ag.init(g.freeze());
+        assertTrue(ag.isConnected());
+        assertEquals(16, ag.shortestPathDist(9, 4));
+        int[] checkKey = {0, 1, 5, 7, 10, 8};
+        int i = 0;
+        for (node_info n : ag.shortestPath(0, 8)) {
+            assertEquals(checkKey[i], n.getKey());
+            i++;
+        }
+        weighted_graph copy = ag.copy();
+        assertEquals(g, copy);
+
+        ag.init(((WGraph_DS) WGraph_DSTest.graph_creator(2, 0, 1)).freeze());
+        assertFalse(ag.isConnected());
+    }
+}
@@ -0,0 +1,157 @@
+package ex1.tests;
+
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_Concurrent;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs all of the WGraph_DSTest tests against WGraph_Concurrent, and checks it under concurrent readers and writers.
+ */
+class WGraph_ConcurrentTest extends WGraph_DSTest {
+
+    @Override
+    protected weighted_graph newGraph() {
+        return new WGraph_Concurrent(8);
+    }
+
+    /**
+     * @return a thread running the body, which records the first Throwable of any such thread in the failure.
+     */
+    private static Thread thread(AtomicReference<Throwable> failure, Runnable body) {
+        return new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    @Test
+    void concurrentReadersAndWriters() throws InterruptedException {
+        int v = 300;
+        weighted_graph g = graph_creator(newGraph(), v, 900, 1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] writers = new Thread[4], readers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int seed = t;
+            writers[t] = thread(failure, () -> {
+                Random rnd = new Random(seed);
+                for (int i = 0; i < 20000; i++) {
+                    int a = rnd.nextInt(v), b = rnd.nextInt(v);
+                    switch (rnd.nextInt(4)) {
+                        case 0: g.removeEdge(a, b); break;
+                        case 1: g.removeNode(a); g.addNode(a); break;
+                        default: g.connect(a, b, rnd.nextDouble());
+                    }
+                }
+            });
+        }
+        for (int t = 0; t < readers.length; t++) {
+            int seed = 10 + t;
+            readers[t] = thread(failure, () -> {
+                Random rnd = new Random(seed);
+                WGraph_Algo algo = new WGraph_Algo();
+                algo.init(g);
+                while (!done.get()) {
+                    int a = rnd.nextInt(v), b = rnd.nextInt(v);
+                    g.getEdge(a, b);
+                    for (node_info n : g.getV(a)) {
+                        n.getKey();
+                    }
+                    for (node_info n : g.getV()) {
+                        n.getKey();
+                    }
+                    algo.shortestPathDist(a, b);
+                }
+            });
+        }
+        for (Thread t : readers) t.start();
+        for (Thread t : writers) t.start();
+        for (Thread t : writers) t.join();
+        done.set(true);
+        for (Thread t : readers) t.join();
+
+        if (failure.get() != null) fail(failure.get());
+        int degrees = 0;
+        for (node_info n : g.getV()) {
+            for (node_info neighbor : g.getV(n.getKey())) {
+                degrees++;
+                assertEquals(g.getEdge(n.getKey(), neighbor.getKey()), g.getEdge(neighbor.getKey(), n.getKey()));
+            }
+        }
+        assertEquals(2 * g.edgeSize(), degrees);
+        assertEquals(v, g.nodeSize());
+    }
+
+    @Test
+    void snapshotsDuringWrites() throws InterruptedException {
+        int v = 200;
+        weighted_graph g = graph_creator(newGraph(), v, 0, 2);
+        WGraph_Algo shared = new WGraph_Algo();// queried while the graph changes, its snapshot and cache are reused after
+        shared.init(g);
+        shared.enableCache(100);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] writers = new Thread[3], readers = new Thread[3];
+        for (int t = 0; t < writers.length; t++) {
+            int seed = t;
+            writers[t] = thread(failure, () -> {
+                Random rnd = new Random(seed);
+                for (int i = 0; i < 20000; i++) {
+                    int a = rnd.nextInt(v), b = rnd.nextInt(v);
+                    if (rnd.nextInt(3) == 0) g.removeEdge(a, b);
+                    else g.connect(a, b, 1 + rnd.nextDouble());
+                }
+            });
+        }
+        for (int t = 0; t < readers.length; t++) {
+            int seed = 10 + t;
+            readers[t] = thread(failure, () -> {
+                Random rnd = new Random(seed);
+                while (!done.get()) {
+                    WGraph_CSR snapshot = WGraph_CSR.of(g);
+                    int half = 0;
+                    for (int i = 0; i < snapshot.nodeSize(); i++) {
+                        for (int pos = snapshot.rowStart(i); pos < snapshot.rowEnd(i); pos++) {
+                            int a = snapshot.keyAt(i), b = snapshot.keyAt(snapshot.target(pos));
+                            half++;
+                            assertEquals(snapshot.weight(pos), snapshot.getEdge(b, a), "asymmetric edge " + a + "-" + b);
+                        }
+                    }
+                    assertEquals(2 * snapshot.edgeSize(), half);
+                    shared.shortestPathDist(rnd.nextInt(v), rnd.nextInt(v));
+                    shared.shortestPath(0, 1);
+                }
+            });
+        }
+        for (Thread t : readers) t.start();
+        for (Thread t : writers) t.start();
+        for (Thread t : writers) t.join();
+        g.connect(0, 1, 0.125);// the last write
+        done.set(true);
+        for (Thread t : readers) t.join();
+
+        if (failure.get() != null) fail(failure.get());
+        WGraph_CSR snapshot = WGraph_CSR.of(g);
+        assertEquals(g.getMC(), snapshot.getMC());
+        assertEquals(0.125, snapshot.getEdge(0, 1));
+        assertEquals(0.125, shared.shortestPathDist(0, 1));// every weight is more than 1 besides the last write
+        assertEquals(2, shared.shortestPath(0, 1).size());
+        WGraph_Algo fresh = new WGraph_Algo();
+        fresh.init(g);
+        for (int dest = 0; dest < v; dest += 7) {
+            assertEquals(fresh.shortestPathDist(0, dest), shared.shortestPathDist(0, dest), 1e-9);
+        }
+    }
+}
@@ -16,9 +16,16 @@ class WGraph_DSTest {
 
     private static Random _rnd = null;
 
+    /**
+     * The graph implementation under test, overridden by the tests of the other implementations of weighted_graph.
+     */
+    protected weighted_graph newGraph() {
+        return new WGraph_DS();
+    }
+
     @Test
     void nodeSize() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(1);
@@ -33,7 +40,7 @@ class WGraph_DSTest {
 
     @Test
     void edgeSize() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(2);
@@ -52,7 +59,7 @@ class WGraph_DSTest {
 
     @Test
     void getV() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(2);
@@ -72,7 +79,7 @@ class WGraph_DSTest {
     @Test
     void hasEdge() {
         int v = 10, e = v * (v - 1) / 2;
-        weighted_graph g = graph_creator(v, e, 1);
+        weighted_graph g = graph_creator(newGraph(), v, e, 1);
         for (int i = 0; i < v; i++) {
             for (int j = i + 1; j < v; j++) {
                 boolean b = g.hasEdge(i, j);
@@ -84,7 +91,7 @@ class WGraph_DSTest {
 
     @Test
     void connect() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(2);
@@ -103,7 +110,7 @@ class WGraph_DSTest {
 
     @Test
     void removeNode() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(2);
@@ -119,9 +126,49 @@ class WGraph_DSTest {
         assertEquals(3, g.nodeSize());
     }
 
+    @Test
+    void removeNodeMC() {
+        weighted_graph g = newGraph();
+        for (int i = 0; i < 4; i++) g.addNode(i);
+        g.connect(0, 1, 1);
+        g.connect(0, 2, 2);
+        int mc = g.getMC();
+        g.removeNode(0);
+        assertEquals(mc + 3, g.getMC());
+        assertEquals(0, g.getV(1).size());
+        assertNull(g.getNode(0));
+        g.addNode(0);
+        assertEquals(0, g.getV(0).size());
+        assertFalse(g.hasEdge(0, 1));
+    }
+
+    @Test
+    void removeNodes() {
+        int v = 200;
+        WGraph_DS g = (WGraph_DS) graph_creator(new WGraph_DS(), v, 1000, 2);
+        WGraph_DS expected = (WGraph_DS) graph_creator(new WGraph_DS(), v, 1000, 2);
+        int[] keys = new int[60];
+        for (int i = 0; i < keys.length; i++) keys[i] = (i * 7) % (v + 20);// a few keys are not in the graph
+        int count = 0;
+        for (int key : keys) {
+            if (expected.removeNode(key) != null) count++;
+        }
+        assertEquals(count, g.removeNodes(keys));
+        assertEquals(expected.nodeSize(), g.nodeSize());
+        assertEquals(expected.edgeSize(), g.edgeSize());
+        assertEquals(expected.getMC(), g.getMC());
+        for (node_info n : expected.getV()) {
+            assertNotNull(g.getNode(n.getKey()));
+            for (node_info u : expected.getV(n.getKey())) {
+                assertEquals(expected.getEdge(n.getKey(), u.getKey()), g.getEdge(n.getKey(), u.getKey()));
+            }
+            assertEquals(expected.getV(n.getKey()).size(), g.getV(n.getKey()).size());
+        }
+    }
+
     @Test
     void removeEdge() {
-        weighted_graph g = new WGraph_DS();
+        weighted_graph g = newGraph();
         g.addNode(0);
         g.addNode(1);
         g.addNode(2);
@@ -146,7 +193,19 @@ class WGraph_DSTest {
      * @return
      */
     public static weighted_graph graph_creator(int v_size, int e_size, int seed) {
-        weighted_graph g = new WGraph_DS();
+        return graph_creator(new WGraph_DS(), v_size, e_size, seed);
+    }
+
+    /**
+     * Fill the given (empty) graph with v_size nodes and e_size random edges
+     *
+     * @param g
+     * @param v_size
+     * @param e_size
+     * @param seed
+     * @return g
+     */
+    public static weighted_graph graph_creator(weighted_graph g, int v_size, int e_size, int seed) {
         _rnd = new Random(seed);
         for (int i = 0; i < v_size; i++) {
             g.addNode(i);
@@ -204,7 +263,7 @@ class WGraph_DSTest {
 
     @Test
     void edges() {
-        weighted_graph g0 = graph_creator(11, 0, 1);
+        weighted_graph g0 = graph_creator(newGraph(), 11, 0, 1);
         g0.connect(0, 1, 1);
         g0.connect(0, 2, 2);
         g0.connect(0, 3, 3);
@@ -233,7 +292,7 @@ class WGraph_DSTest {
 
     @Test
     void largeGraph(){
-        weighted_graph g0 = graph_creator(21, 0, 1);
+        weighted_graph g0 = graph_creator(newGraph(), 21, 0, 1);
 
         g0.connect(0, 1, 1);
         g0.connect(0, 2, 2);
@@ -0,0 +1,35 @@
+package ex1.tests;
+
+import ex1.src.WGraph_PrimitiveDS;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs all of the WGraph_DSTest tests against WGraph_PrimitiveDS.
+ */
+class WGraph_PrimitiveDSTest extends WGraph_DSTest {
+
+    @Override
+    protected weighted_graph newGraph() {
+        return new WGraph_PrimitiveDS();
+    }
+
+    @Test
+    void manyNodes() {
+        weighted_graph g = graph_creator(newGraph(), 1000, 5000, 2);
+        assertEquals(1000, g.nodeSize());
+        assertEquals(5000, g.edgeSize());
+        for (int i = 0; i < 1000; i += 2) {
+            g.removeNode(i);
+        }
+        assertEquals(500, g.nodeSize());
+        int degrees = 0;
+        for (int i = 1; i < 1000; i += 2) {
+            degrees += g.getV(i).size();
+            assertNull(g.getNode(i - 1));
+        }
+        assertEquals(2 * g.edgeSize(), degrees);
+    }
+}
@@ -0,0 +1,126 @@
+package ex1.tests;
+
+import ex1.src.WGraph_Algo;
+import ex1.src.WGraph_CSR;
+import ex1.src.WGraph_PrimitiveDS;
+import ex1.src.WGraph_Versioned;
+import ex1.src.node_info;
+import ex1.src.weighted_graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs all of the WGraph_DSTest tests against WGraph_Versioned, and checks that its snapshots never see later writes.
+ */
+class WGraph_VersionedTest extends WGraph_DSTest {
+
+    @Override
+    protected weighted_graph newGraph() {
+        return new WGraph_Versioned();
+    }
+
+    @Test
+    void snapshotIsolation() {
+        int v = 60;
+        WGraph_Versioned g = new WGraph_Versioned();
+        WGraph_PrimitiveDS expected = new WGraph_PrimitiveDS();
+        List<WGraph_Versioned> snapshots = new ArrayList<>();
+        List<weighted_graph> copies = new ArrayList<>();
+        Random rnd = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            int a = rnd.nextInt(v), b = rnd.nextInt(v);
+            switch (rnd.nextInt(5)) {
+                case 0: g.addNode(a); expected.addNode(a); break;
+                case 1: g.removeNode(a); expected.removeNode(a); break;
+                case 2: g.removeEdge(a, b); expected.removeEdge(a, b); break;
+                default: double w = rnd.nextInt(10); g.connect(a, b, w); expected.connect(a, b, w);
+            }
+            if (i % 250 == 0) {
+                snapshots.add(g.snapshot());
+                copies.add(WGraph_CSR.of(expected));
+            }
+        }
+        assertSameGraph(g, expected, v);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertSameGraph(snapshots.get(i), copies.get(i), v);
+        }
+    }
+
+    private static void assertSameGraph(weighted_graph actual, weighted_graph expected, int v) {
+        assertEquals(expected.nodeSize(), actual.nodeSize());
+        assertEquals(expected.edgeSize(), actual.edgeSize());
+        assertEquals(expected.nodeSize(), actual.getV().size());
+        for (int a = 0; a < v; a++) {
+            assertEquals(expected.getNode(a) == null, actual.getNode(a) == null);
+            assertEquals(expected.getV(a).size(), actual.getV(a).size());
+            for (int b = 0; b < v; b++) {
+                assertEquals(expected.getEdge(a, b), actual.getEdge(a, b));
+            }
+        }
+    }
+
+    @Test
+    void snapshotIsKeyedByMC() {
+        WGraph_Versioned g = new WGraph_Versioned();
+        g.addNode(0);
+        g.addNode(1);
+        WGraph_Versioned s1 = g.snapshot();
+        assertSame(s1, g.snapshot());
+        assertEquals(g.getMC(), s1.getMC());
+        g.connect(0, 1, 2);
+        WGraph_Versioned s2 = g.snapshot();
+        assertNotSame(s1, s2);
+        assertSame(s2, s2.snapshot());
+        assertTrue(s2.isSnapshot());
+        assertFalse(s1.hasEdge(0, 1));
+        assertEquals(2, s2.getEdge(0, 1));
+    }
+
+    @Test
+    void snapshotIsImmutable() {
+        WGraph_Versioned g = new WGraph_Versioned();
+        g.addNode(0);
+        g.addNode(1);
+        g.getNode(0).setInfo("a");
+        WGraph_Versioned s = g.snapshot();
+        assertThrows(UnsupportedOperationException.class, () -> s.addNode(2));
+        assertThrows(UnsupportedOperationException.class, () -> s.connect(0, 1, 1));
+        assertThrows(UnsupportedOperationException.class, () -> s.removeNode(0));
+        assertThrows(UnsupportedOperationException.class, () -> s.removeEdge(0, 1));
+        assertThrows(UnsupportedOperationException.class, () -> s.getNode(0).setInfo("b"));
+        assertThrows(UnsupportedOperationException.class, () -> s.getNode(0).setTag(1));
+
+        node_info n = g.getNode(0);
+        n.setInfo("b");
+        n.setTag(5);
+        assertEquals("b", g.getNode(0).getInfo());
+        assertEquals(5, g.getNode(0).getTag());
+        assertEquals("a", s.getNode(0).getInfo());
+        assertEquals(0, s.getNode(0).getTag());
+        assertEquals("b", g.snapshot().getNode(0).getInfo());
+    }
+
+    @Test
+    void algorithmsOnSnapshot() {
+        WGraph_Versioned g = (WGraph_Versioned) graph_creator(newGraph(), 200, 600, 4);
+        WGraph_Versioned s = g.snapshot();
+        WGraph_Algo algo = new WGraph_Algo();
+        algo.init(s);
+        double before = algo.shortestPathDist(0, 199);
+        for (node_info n : algo.copy().getV(0)) {
+            g.removeEdge(0, n.getKey());
+        }
+        g.removeNode(199);
+        assertEquals(before, algo.shortestPathDist(0, 199));
+
+        WGraph_Algo expected = new WGraph_Algo();
+        expected.init(algo.copy());
+        assertEquals(expected.shortestPathDist(0, 199), algo.shortestPathDist(0, 199));
+        assertEquals(expected.isConnected(), algo.isConnected());
+    }
+}